@@ -0,0 +1,111 @@
+package com.sap.cloud.address.service.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Cache of customer addresses loaded from the address-service.
+ *
+ * Entries do not expire by time. Instead, the {@link ChangeEventSubscriber}
+ * invalidates them as soon as the address-service publishes a change, so the
+ * cache neither serves stale addresses for a TTL nor polls for changes. The
+ * cache holds at most 'address-cache.max-entries' entries, evicting the least
+ * recently used one.
+ *
+ * The address clients ({@link DCAddressServiceClient}, {@link ETAddressServiceClient},
+ * {@link FeignAddressServiceClient}) read customer addresses through the cache and
+ * pass their own way of calling the address-service for a miss.
+ */
+@Component
+public class AddressCache {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${address-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // bumped on every invalidation, so that a load racing with an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private Map<String, Address> entries;
+
+    public AddressCache() {
+    }
+
+    AddressCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<String, Address>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Address> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Address getAddress(String customerId) {
+        return getAddress(customerId,
+                id -> restTemplate.getForObject("http://address-service/address/{customerId}", Address.class, id));
+    }
+
+    /**
+     * The cached address of a customer, loaded with {@code loader} on a miss.
+     */
+    public Address getAddress(String customerId, Function<String, Address> loader) {
+        synchronized (entries) {
+            Address cached = entries.get(customerId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        Address address = loader.apply(customerId);
+        synchronized (entries) {
+            if (address != null && generation.get() == loadGeneration) {
+                entries.put(customerId, address);
+            }
+        }
+        return address;
+    }
+
+    public void invalidate(String customerId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(customerId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
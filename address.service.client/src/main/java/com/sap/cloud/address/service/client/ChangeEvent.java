@@ -0,0 +1,48 @@
+package com.sap.cloud.address.service.client;
+
+/**
+ * An address change event as published by the address-service.
+ */
+public class ChangeEvent {
+    private long offset;
+    private String type;
+    private String customerId;
+    private long timestamp;
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent [offset=" + offset + ", type=" + type + ", customerId=" + customerId + ", timestamp=" + timestamp + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package com.sap.cloud.address.service.client;
+
+import java.util.List;
+
+/**
+ * A batch of change events read from the address-service's event feed ('GET /events').
+ */
+public class ChangeEventBatch {
+    private String epoch;
+    private boolean reset;
+    private long next;
+    private List<ChangeEvent> events;
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public void setNext(long next) {
+        this.next = next;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<ChangeEvent> events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,195 @@
+package com.sap.cloud.address.service.client;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Subscribes to the address change events of all address-service instances and
+ * invalidates the affected {@link AddressCache} entries.
+ *
+ * With the local stand-in broker, each address-service instance serves the
+ * events it published itself at 'GET /events'. The subscriber therefore looks up
+ * the instances through the {@link DiscoveryClient} and long-polls each of them
+ * on its own thread, keeping a separate position per instance. The position only
+ * moves on after a batch has been applied to the cache and a failed read is
+ * repeated, so every event is seen at least once (duplicates are harmless, an
+ * invalidation is idempotent). If an instance reports a reset (the subscriber fell
+ * behind its buffer or the instance restarted), the whole cache is invalidated.
+ */
+@Component
+public class ChangeEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventSubscriber.class);
+
+    private static final long MAX_BACKOFF_MS = 10000;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private AddressCache addressCache;
+
+    @Value("${change-events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${change-events.service-id:address-service}")
+    private String serviceId;
+
+    @Value("${change-events.wait-ms:25000}")
+    private long waitMs;
+
+    @Value("${change-events.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${change-events.refresh-ms:30000}")
+    private long refreshMs;
+
+    private final Map<String, Poller> pollers = new ConcurrentHashMap<>();
+    private RestTemplate restTemplate;
+    private ScheduledExecutorService discovery;
+    private ExecutorService pollerThreads;
+
+    public ChangeEventSubscriber() {
+    }
+
+    ChangeEventSubscriber(AddressCache addressCache) {
+        this.addressCache = addressCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // a plain RestTemplate: each poller talks to one specific instance, not through the load balancer
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout((int) waitMs + 10000);
+        restTemplate = new RestTemplate(requestFactory);
+
+        pollerThreads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "change-event-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        discovery = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-event-discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        discovery.scheduleWithFixedDelay(this::refresh, 0, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (discovery != null) {
+            discovery.shutdownNow();
+            pollers.values().forEach(Poller::stop);
+            pollerThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts pollers for new instances and stops those of instances that are gone.
+     */
+    void refresh() {
+        try {
+            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+            Set<String> current = new HashSet<>();
+            for (ServiceInstance instance : instances) {
+                String key = instance.getInstanceId() != null ? instance.getInstanceId() : instance.getUri().toString();
+                current.add(key);
+                pollers.computeIfAbsent(key, id -> {
+                    Poller poller = new Poller(id, instance.getUri().toString());
+                    pollerThreads.execute(poller);
+                    return poller;
+                });
+            }
+            pollers.entrySet().removeIf(entry -> {
+                if (current.contains(entry.getKey())) {
+                    return false;
+                }
+                entry.getValue().stop();
+                return true;
+            });
+        } catch (Exception ex) {
+            logger.warn("Failed to look up {} instances for change events: {}", serviceId, ex.getMessage());
+        }
+    }
+
+    class Poller implements Runnable {
+        private final String instanceId;
+        private final String baseUrl;
+        private volatile boolean running = true;
+        private String epoch = "";
+        private long from;
+
+        Poller(String instanceId, String baseUrl) {
+            this.instanceId = instanceId;
+            this.baseUrl = baseUrl;
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        @Override
+        public void run() {
+            logger.info("Subscribing to change events of {} at {}", instanceId, baseUrl);
+            long backoffMs = 500;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    ChangeEventBatch batch = restTemplate.getForObject(
+                            baseUrl + "/events?epoch={epoch}&from={from}&max={max}&waitMs={waitMs}",
+                            ChangeEventBatch.class, epoch, from, maxBatch, waitMs);
+                    apply(batch);
+                    backoffMs = 500;
+                } catch (Exception ex) {
+                    if (!running) {
+                        break;
+                    }
+                    logger.debug("Reading change events from {} failed, retrying in {} ms: {}", instanceId, backoffMs, ex.getMessage());
+                    try {
+                        Thread.sleep(backoffMs);
+                    } catch (InterruptedException interrupted) {
+                        break;
+                    }
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                }
+            }
+            logger.info("Stopped change event subscription of {}", instanceId);
+        }
+
+        void apply(ChangeEventBatch batch) {
+            if (batch.isReset()) {
+                logger.info("Change events of {} were reset (from {}), invalidating all cached addresses", instanceId, from);
+                addressCache.invalidateAll();
+            }
+            for (ChangeEvent event : batch.getEvents()) {
+                addressCache.invalidate(event.getCustomerId());
+            }
+            epoch = batch.getEpoch();
+            from = batch.getNext();
+        }
+    }
+}
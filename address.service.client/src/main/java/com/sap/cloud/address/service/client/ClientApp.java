@@ -8,15 +8,25 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import feign.Client;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
+@RibbonClients(defaultConfiguration = SlowStartRibbonConfiguration.class)
 public class ClientApp {
     
     private static final Logger logger = LoggerFactory.getLogger(ClientApp.class);
@@ -36,6 +46,15 @@ public class ClientApp {
         FeignAddressServiceClient feignAddressServiceClient = ctx.getBean(FeignAddressServiceClient.class);
         logger.info("{}", feignAddressServiceClient);
         feignAddressServiceClient.getAddress();
+
+        // customer addresses are read through the AddressCache: a miss for the first client only
+        String customerId = ctx.getEnvironment().getProperty("address-cache.demo-customer-id");
+        if (customerId != null) {
+            logger.info("Address of customer {} (DC): {}", customerId, dcAddressServiceClient.getAddress(customerId));
+            logger.info("Address of customer {} (ET): {}", customerId, etAddressServiceClient.getAddress(customerId));
+            logger.info("Address of customer {} (Feign): {}", customerId, feignAddressServiceClient.getAddress(customerId));
+            logger.info("Address cache: {} hits, {} misses", ctx.getBean(AddressCache.class).getHits(), ctx.getBean(AddressCache.class).getMisses());
+        }
     }
 
     @Bean
@@ -50,7 +69,25 @@ public class ClientApp {
     
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CallTimings callTimings) {
+        return new RestTemplate(callTimings.requestFactory(new SimpleClientHttpRequestFactory()));
+    }
+    
+    /**
+     * Feign's load-balancing client as configured by default, with the HTTP exchange timed by {@link CallTimings}.
+     */
+    @Bean
+    public Client feignClient(CachingSpringLoadBalancerFactory cachingFactory, SpringClientFactory clientFactory, CallTimings callTimings) {
+        return new LoadBalancerFeignClient(callTimings.feignClient(new Client.Default(null, null)), cachingFactory, clientFactory);
+    }
+
+    /**
+     * Log events dropped by the asynchronous logging (see {@link WarnBlockingAsyncAppender}).
+     */
+    @Bean
+    public FunctionCounter droppedLogEvents(MeterRegistry meterRegistry) {
+        return FunctionCounter.builder("logging.async.dropped", WarnBlockingAsyncAppender.class, type -> WarnBlockingAsyncAppender.getDropped())
+                .description("Log events below WARN dropped because the asynchronous logging queue was full")
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -14,11 +14,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.EurekaClient;
 
@@ -37,26 +39,70 @@ public class DCAddressServiceClient {
     
     private static final Logger logger = LoggerFactory.getLogger(DCAddressServiceClient.class);
 
+    private static final ObjectWriter instanceInfoWriter = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
     @Autowired
     private DiscoveryClient discoveryClient;
 
     @Autowired
     private EurekaClient eurekaClient;
 
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    @Autowired
+    private AddressCache addressCache;
+
     public void getAddress() throws RestClientException, IOException {
         
-        String baseUrlFromEurekaClient = getServiceURLwithEurekaClient();
-        String baseUrlFromSpringDiscoveryClient = getServiceURLwithSpringDiscoveryClient();
-        
-        logger.info("--> Service URL from Eureka Client: {}", baseUrlFromEurekaClient);
-        logger.info("--> Service URL from Spring Client: {}", baseUrlFromSpringDiscoveryClient);
+        boolean logCall = logSampler.sample();
+        ResponseEntity<String> response;
+        CallTiming timing = callTimings.begin("dc", "address-service");
+        try {
+            response = callAddressService(logCall);
+        } finally {
+            callTimings.end(timing);
+        }
+        if (logCall) {
+            logger.info(response.getBody());
+        }
+    }
+
+    /**
+     * The address of a customer from the {@link AddressCache}, loaded from an instance
+     * looked up with the {@link DiscoveryClient} on a miss.
+     */
+    public Address getAddress(String customerId) {
+        return addressCache.getAddress(customerId, id -> {
+            CallTiming timing = callTimings.begin("dc", "address-service");
+            try {
+                String baseUrl = getServiceURLwithSpringDiscoveryClient(false);
+                RestTemplate restTemplate = new RestTemplate(callTimings.requestFactory(new SimpleClientHttpRequestFactory()));
+                return restTemplate.getForObject(baseUrl + "/address/{customerId}", Address.class, id);
+            } finally {
+                callTimings.end(timing);
+            }
+        });
+    }
 
+    private ResponseEntity<String> callAddressService(boolean logCall) throws RestClientException, IOException {
+
+        String baseUrlFromEurekaClient = getServiceURLwithEurekaClient(logCall);
+        String baseUrlFromSpringDiscoveryClient = getServiceURLwithSpringDiscoveryClient(logCall);
+        
         String baseUrl = baseUrlFromSpringDiscoveryClient;
         baseUrl = baseUrl + "/address";
 
-        logger.info("Address Service Instance Address: {}", baseUrl);
+        if (logCall) {
+            logger.info("--> Service URL from Eureka Client: {}", baseUrlFromEurekaClient);
+            logger.info("--> Service URL from Spring Client: {}", baseUrlFromSpringDiscoveryClient);
+            logger.info("Address Service Instance Address: {}", baseUrl);
+        }
 
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = new RestTemplate(callTimings.requestFactory(new SimpleClientHttpRequestFactory()));
 
         ResponseEntity<String> response = null;
         try {
@@ -64,7 +110,7 @@ public class DCAddressServiceClient {
         } catch (Exception ex) {
             logger.error("Caught exception during RestTemplate call.", ex);
         }
-        logger.info(response.getBody());
+        return response;
     }
 
     private static HttpEntity<?> getHeaders() throws IOException {
@@ -73,17 +119,19 @@ public class DCAddressServiceClient {
         return new HttpEntity<>(headers);
     }
 
-    private String getServiceURLwithSpringDiscoveryClient() {
+    private String getServiceURLwithSpringDiscoveryClient(boolean logCall) {
         
         List<ServiceInstance> instances = discoveryClient.getInstances("address-service");
         
-        dumpServiceInstancesInformationFromSpringDiscoveryClient(instances);
+        if (logCall) {
+            dumpServiceInstancesInformationFromSpringDiscoveryClient(instances);
+        }
         
         ServiceInstance serviceInstance = instances.get(0);
         return serviceInstance.getUri().toString();
     }
 
-    private void dumpServiceInstancesInformationFromSpringDiscoveryClient(List<ServiceInstance> instances) {
+    static void dumpServiceInstancesInformationFromSpringDiscoveryClient(List<ServiceInstance> instances) {
         
         logger.info("--- Service Instances Information from Spring Discovery Client ---");
         for (ServiceInstance instance : instances) {
@@ -101,23 +149,24 @@ public class DCAddressServiceClient {
         }
     }
 
-    private String getServiceURLwithEurekaClient() throws JsonProcessingException {
+    private String getServiceURLwithEurekaClient(boolean logCall) throws JsonProcessingException {
 
         List<InstanceInfo> serviceInstances = eurekaClient.getInstancesByVipAddress("address-service", false);
 
-        dumpServiceInstancesInformationFromEurekaClient(serviceInstances);
+        if (logCall) {
+            dumpServiceInstancesInformationFromEurekaClient(serviceInstances);
+        }
 
         InstanceInfo instanceInfo = serviceInstances.get(0);
         return instanceInfo.getHomePageUrl();
     }
 
-    private void dumpServiceInstancesInformationFromEurekaClient(List<InstanceInfo> serviceInstances) throws JsonProcessingException {
+    static void dumpServiceInstancesInformationFromEurekaClient(List<InstanceInfo> serviceInstances) throws JsonProcessingException {
         
         logger.info("---------- Service Instances Information from Eureka Client ----------");
         for (InstanceInfo instanceInfo : serviceInstances) {
             logger.info("------------------ Service Instance -------------------");
-            ObjectMapper mapper = new ObjectMapper();
-            String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(instanceInfo);
+            String json = instanceInfoWriter.writeValueAsString(instanceInfo);
             logger.info("-- InstanceInfo: (You can get all of this with getters!)" );
             logger.info(json);
             logger.info("");
@@ -25,11 +25,41 @@ public class ETAddressServiceClient {
     
     @Autowired
     private RestTemplate restTemplate;
+
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    @Autowired
+    private AddressCache addressCache;
     
     public void getAddress() throws RestClientException, IOException {
-        Address address = restTemplate.getForObject("http://address-service/address", Address.class);
+        Address address;
+        CallTiming timing = callTimings.begin("et", "address-service");
+        try {
+            address = restTemplate.getForObject("http://address-service/address", Address.class);
+        } finally {
+            callTimings.end(timing);
+        }
         
-        logger.info("Address from RestTemplate: ");
-        logger.info(address.toString());
+        if (logSampler.sample()) {
+            logger.info("Address from RestTemplate: {}", address);
+        }
+    }
+
+    /**
+     * The address of a customer from the {@link AddressCache}, loaded with the RestTemplate on a miss.
+     */
+    public Address getAddress(String customerId) {
+        return addressCache.getAddress(customerId, id -> {
+            CallTiming timing = callTimings.begin("et", "address-service");
+            try {
+                return restTemplate.getForObject("http://address-service/address/{customerId}", Address.class, id);
+            } finally {
+                callTimings.end(timing);
+            }
+        });
     }
 }
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
@@ -26,11 +27,41 @@ public class FeignAddressServiceClient {
     @Autowired
     private AddressServiceProxy addressServiceProxy;
 
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    @Autowired
+    private AddressCache addressCache;
+
     public void getAddress() {
-        Address address = addressServiceProxy.loadAddress();
+        Address address;
+        CallTiming timing = callTimings.begin("feign", "address-service");
+        try {
+            address = addressServiceProxy.loadAddress();
+        } finally {
+            callTimings.end(timing);
+        }
         
-        logger.info("Address from FeignClient: ");
-        logger.info(address.toString());
+        if (logSampler.sample()) {
+            logger.info("Address from FeignClient: {}", address);
+        }
+    }
+
+    /**
+     * The address of a customer from the {@link AddressCache}, loaded with the Feign client on a miss.
+     */
+    public Address getAddress(String customerId) {
+        return addressCache.getAddress(customerId, id -> {
+            CallTiming timing = callTimings.begin("feign", "address-service");
+            try {
+                return addressServiceProxy.loadAddress(id);
+            } finally {
+                callTimings.end(timing);
+            }
+        });
     }
 }
 
@@ -39,4 +70,7 @@ public class FeignAddressServiceClient {
 interface AddressServiceProxy {
     @RequestMapping(method = RequestMethod.GET, value = "/address")
     Address loadAddress();
+
+    @RequestMapping(method = RequestMethod.GET, value = "/address/{customerId}")
+    Address loadAddress(@PathVariable("customerId") String customerId);
 }
\ No newline at end of file
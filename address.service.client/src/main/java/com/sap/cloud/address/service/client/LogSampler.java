@@ -0,0 +1,70 @@
+package com.sap.cloud.address.service.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limit for the per-call logs of the DC, ET and Feign clients (payloads,
+ * instance dumps), 'payload-logging.max-per-second'.
+ *
+ * At production call rates, building these log lines and writing them costs a
+ * noticeable share of CPU and latency. Only the first calls of each second are
+ * logged, completely; the others are counted and reported once per second, so
+ * it stays visible that lines were left out. A single demo call is always logged.
+ * 0 switches the per-call logs off, a negative value logs every call.
+ */
+@Component
+public class LogSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSampler.class);
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${payload-logging.max-per-second:10}")
+    private int maxPerSecond;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger sampled = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public LogSampler() {
+    }
+
+    LogSampler(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * @return true if the current call is to be logged
+     */
+    public boolean sample() {
+        if (maxPerSecond < 0) {
+            return true;
+        }
+        if (maxPerSecond == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            sampled.set(0);
+            long count = suppressed.sumThenReset();
+            if (count > 0) {
+                logger.info("{} calls not logged in the last {} ms (payload-logging.max-per-second: {})",
+                        count, TimeUnit.NANOSECONDS.toMillis(now - start), maxPerSecond);
+            }
+        }
+        if (sampled.get() < maxPerSecond && sampled.incrementAndGet() <= maxPerSecond) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sap.cloud.address.service.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import com.netflix.loadbalancer.IRule;
+
+/**
+ * Ribbon client configuration installing the {@link SlowStartRule} for every
+ * Ribbon client (see {@link ClientApp}).
+ *
+ * Intentionally not annotated with @Configuration: it is registered in each Ribbon
+ * client's child context, so every client gets its own rule instance.
+ */
+public class SlowStartRibbonConfiguration {
+
+    @Bean
+    public IRule ribbonRule(@Value("${slow-start.window-ms:60000}") long windowMs,
+                            @Value("${slow-start.min-weight:0.1}") double minWeight) {
+        return new SlowStartRule(windowMs, minWeight);
+    }
+}
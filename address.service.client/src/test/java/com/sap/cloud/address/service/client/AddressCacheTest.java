@@ -0,0 +1,109 @@
+package com.sap.cloud.address.service.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link AddressCache} and the invalidations of the {@link ChangeEventSubscriber}.
+ */
+public class AddressCacheTest extends TestCase {
+
+    private final List<String> loads = new ArrayList<>();
+    private final Function<String, Address> loader = customerId -> {
+        loads.add(customerId);
+        return address("Street " + loads.size());
+    };
+
+    public void testLoadsOnMissOnly() {
+        AddressCache cache = new AddressCache(10);
+
+        Address address = cache.getAddress("1", loader);
+        assertSame(address, cache.getAddress("1", loader));
+        assertEquals(Arrays.asList("1"), loads);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    public void testMissingAddressIsNotCached() {
+        AddressCache cache = new AddressCache(10);
+
+        assertNull(cache.getAddress("1", customerId -> {
+            loads.add(customerId);
+            return null;
+        }));
+        cache.getAddress("1", loader);
+        assertEquals(Arrays.asList("1", "1"), loads);
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        AddressCache cache = new AddressCache(2);
+        cache.getAddress("1", loader);
+        cache.getAddress("2", loader);
+        cache.getAddress("1", loader);
+        cache.getAddress("3", loader);
+
+        cache.getAddress("1", loader);
+        cache.getAddress("2", loader);
+        assertEquals(Arrays.asList("1", "2", "3", "2"), loads);
+    }
+
+    public void testLoadRacingWithInvalidationIsNotCached() {
+        AddressCache cache = new AddressCache(10);
+        cache.getAddress("1", customerId -> {
+            cache.invalidate(customerId); // the address changes while it is loaded
+            return address("old");
+        });
+
+        assertEquals("Street 1", cache.getAddress("1", loader).getStreetName());
+    }
+
+    public void testChangeEventsInvalidateAndAddressIsReRead() {
+        AddressCache cache = new AddressCache(10);
+        ChangeEventSubscriber.Poller poller = new ChangeEventSubscriber(cache).new Poller("instance-1", "http://localhost:8080");
+        cache.getAddress("1", loader);
+        cache.getAddress("2", loader);
+
+        poller.apply(batch(false, event("customerUpdated", "1")));
+        assertEquals("Street 3", cache.getAddress("1", loader).getStreetName());
+        assertEquals("Street 2", cache.getAddress("2", loader).getStreetName());
+        assertEquals(Arrays.asList("1", "2", "1"), loads);
+    }
+
+    public void testResetInvalidatesAll() {
+        AddressCache cache = new AddressCache(10);
+        ChangeEventSubscriber.Poller poller = new ChangeEventSubscriber(cache).new Poller("instance-1", "http://localhost:8080");
+        cache.getAddress("1", loader);
+        cache.getAddress("2", loader);
+
+        poller.apply(batch(true));
+        cache.getAddress("1", loader);
+        cache.getAddress("2", loader);
+        assertEquals(Arrays.asList("1", "2", "1", "2"), loads);
+    }
+
+    private static Address address(String streetName) {
+        Address address = new Address();
+        address.setStreetName(streetName);
+        return address;
+    }
+
+    private static ChangeEventBatch batch(boolean reset, ChangeEvent... events) {
+        ChangeEventBatch batch = new ChangeEventBatch();
+        batch.setEpoch("epoch");
+        batch.setReset(reset);
+        batch.setNext(events.length);
+        batch.setEvents(Arrays.asList(events));
+        return batch;
+    }
+
+    private static ChangeEvent event(String type, String customerId) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setCustomerId(customerId);
+        return event;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sap.cloud.address.service.client;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class CallTimingsTest extends TestCase {
+
+    public void testParsesServerTiming() {
+        Map<String, Double> metrics = CallTimings.parseServerTiming(Arrays.asList(
+                "dispatch;dur=0.21, handler;desc=\"controller\";dur=1.73", "cache, total;dur=2.5, broken;dur=x"));
+
+        assertEquals(Arrays.asList("dispatch", "handler", "total"), Arrays.asList(metrics.keySet().toArray()));
+        assertEquals(0.21, metrics.get("dispatch"), 0.0);
+        assertEquals(1.73, metrics.get("handler"), 0.0);
+        assertEquals(2.5, metrics.get("total"), 0.0);
+        assertTrue(CallTimings.parseServerTiming(null).isEmpty());
+    }
+
+    public void testKeepsMostRecentCalls() {
+        CallTimings callTimings = new CallTimings(3);
+        callTimings.start();
+        for (int i = 0; i < 5; i++) {
+            CallTiming timing = callTimings.begin("et", "service-" + i);
+            callTimings.end(timing);
+        }
+
+        List<CallTiming> recent = callTimings.recent();
+        assertEquals(3, recent.size());
+        assertEquals("service-4", recent.get(0).getService());
+        assertEquals("service-2", recent.get(2).getService());
+    }
+
+    public void testBreaksDownCall() throws Exception {
+        CallTiming timing = new CallTiming("feign", "address-service");
+        Thread.sleep(5);
+        timing.exchangeStarted(URI.create("http://10.0.0.1:8080/address"));
+        Thread.sleep(20);
+        timing.exchanged(200, Collections.singletonMap("total", 10.0));
+        timing.ended();
+
+        assertEquals("10.0.0.1:8080", timing.getInstance());
+        assertEquals(1, timing.getAttempts());
+        assertTrue(timing.getDiscoveryMs() >= 5);
+        assertTrue(timing.getExchangeMs() >= 20);
+        assertEquals(timing.getExchangeMs() - 10.0, timing.getNetworkMs(), 0.01);
+        assertTrue(timing.getTotalMs() >= timing.getDiscoveryMs() + timing.getExchangeMs());
+    }
+}
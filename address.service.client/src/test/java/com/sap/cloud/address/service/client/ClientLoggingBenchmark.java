@@ -0,0 +1,204 @@
+package com.sap.cloud.address.service.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+
+/**
+ * Benchmark of the logging cost of the client calls.
+ *
+ * Each call does what {@link DCAddressServiceClient} does besides the HTTP
+ * exchange: it dumps the instances of both discovery clients and logs the
+ * response body, and it deserializes the body like the ET and Feign clients. The
+ * calls run with
+ * - 'off': per-call logging switched off ('payload-logging.max-per-second: 0'),
+ * - 'sync': every call logged, written by the calling thread,
+ * - 'async': every call logged, written by an AsyncAppender (as in logback-spring.xml),
+ * - 'sampled': async, and at most 10 calls per second logged (the default).
+ * Log lines go to a temporary file with Spring Boot's console pattern. Allocation
+ * is measured for the calling threads only.
+ *
+ * Not a unit test; run it with
+ *   mvn test-compile exec:java -Dexec.mainClass=com.sap.cloud.address.service.client.ClientLoggingBenchmark -Dexec.classpathScope=test
+ */
+public class ClientLoggingBenchmark {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final long RUN_MILLIS = 3000;
+    private static final int INSTANCES = 3;
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private static final String BODY = "{\"streetName\":\"Franz-Liszt-Strasse\",\"houseNumber\":\"10a\","
+            + "\"postalCode\":\"69126\",\"city\":\"Heidelberg\",\"country\":\"Germany\"}";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(DCAddressServiceClient.class);
+
+    public static void main(String[] args) throws Exception {
+        List<InstanceInfo> instanceInfos = createInstanceInfos();
+        List<ServiceInstance> serviceInstances = createServiceInstances();
+
+        System.out.printf("%10s %14s %14s %16s %14s%n", "mode", "calls/s", "avg us/call", "alloc B/call", "lines written");
+        run("off", false, new LogSampler(0), instanceInfos, serviceInstances);
+        run("sync", false, new LogSampler(-1), instanceInfos, serviceInstances);
+        run("async", true, new LogSampler(-1), instanceInfos, serviceInstances);
+        run("sampled", true, new LogSampler(10), instanceInfos, serviceInstances);
+    }
+
+    private static void run(String mode, boolean async, LogSampler sampler, List<InstanceInfo> instanceInfos,
+                            List<ServiceInstance> serviceInstances) throws Exception {
+        File logFile = File.createTempFile("client-logging-benchmark", ".log");
+        Appender<ILoggingEvent> appender = configureLogging(logFile, async);
+
+        AtomicLong calls = new AtomicLong();
+        AtomicLong allocatedBytes = new AtomicLong();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            new Thread(() -> {
+                long localCalls = 0;
+                long allocatedBefore = allocatedBytes();
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        call(sampler, instanceInfos, serviceInstances);
+                        localCalls++;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    allocatedBytes.addAndGet(allocatedBytes() - allocatedBefore);
+                    calls.addAndGet(localCalls);
+                    done.countDown();
+                }
+            }, "caller-" + i).start();
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+
+        appender.stop(); // an AsyncAppender writes out its queue first
+        long lines;
+        try (Stream<String> fileLines = Files.lines(logFile.toPath())) {
+            lines = fileLines.count();
+        }
+        Files.delete(logFile.toPath());
+
+        long totalCalls = Math.max(1, calls.get());
+        System.out.printf("%10s %14.0f %14.1f %16d %14d%n", mode, calls.get() * 1e9 / elapsedNanos,
+                elapsedNanos / 1e3 * THREADS / totalCalls, allocatedBytes.get() / totalCalls, lines);
+    }
+
+    /**
+     * The logging of one {@link DCAddressServiceClient#getAddress()} call, without the HTTP exchange.
+     */
+    private static void call(LogSampler sampler, List<InstanceInfo> instanceInfos, List<ServiceInstance> serviceInstances)
+            throws IOException {
+        boolean logCall = sampler.sample();
+        if (logCall) {
+            DCAddressServiceClient.dumpServiceInstancesInformationFromEurekaClient(instanceInfos);
+            DCAddressServiceClient.dumpServiceInstancesInformationFromSpringDiscoveryClient(serviceInstances);
+            logger.info("Address Service Instance Address: {}", serviceInstances.get(0).getUri());
+        }
+        Address address = mapper.readValue(BODY, Address.class);
+        if (logCall) {
+            logger.info(BODY);
+            logger.info("Address from RestTemplate: {}", address);
+        }
+    }
+
+    private static Appender<ILoggingEvent> configureLogging(File logFile, boolean async) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.INFO);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.start();
+        if (!async) {
+            root.addAppender(file);
+            return file;
+        }
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(file);
+        asyncAppender.start();
+        root.addAppender(asyncAppender);
+        return asyncAppender;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static List<InstanceInfo> createInstanceInfos() {
+        List<InstanceInfo> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            String host = "host-" + i + ".example.com";
+            instances.add(InstanceInfo.Builder.newBuilder()
+                    .setAppName("ADDRESS-SERVICE")
+                    .setInstanceId(host + ":address-service:8080")
+                    .setHostName(host)
+                    .setIPAddr("10.0.0." + i)
+                    .setPort(8080)
+                    .setVIPAddress("address-service")
+                    .setHomePageUrl("/", "http://" + host + ":8080/")
+                    .setStatusPageUrl("/actuator/info", "http://" + host + ":8080/actuator/info")
+                    .setHealthCheckUrls("/actuator/health", "http://" + host + ":8080/actuator/health", null)
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .setLeaseInfo(LeaseInfo.Builder.newBuilder().build())
+                    .setStatus(InstanceStatus.UP)
+                    .add("events", "customerCreated,customerUpdated,customerDeleted")
+                    .build());
+        }
+        return instances;
+    }
+
+    private static List<ServiceInstance> createServiceInstances() {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            String host = "host-" + i + ".example.com";
+            instances.add(new DefaultServiceInstance(host + ":address-service:8080", "address-service", host, 8080, false,
+                    Collections.singletonMap("events", "customerCreated,customerUpdated,customerDeleted")));
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,173 @@
+package com.sap.cloud.address.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Memory-mapped prefix index for address autocomplete, built offline by {@link AddressIndexBuilder}.
+ *
+ * The index file holds one section per {@link Field}. Each section is a table of
+ * fixed-width offsets, sorted by the (normalized) key they point to, followed by
+ * the entries themselves:
+ * <pre>
+ *   header:  int magic ('ADRX'), int version, int section count,
+ *            per section: int entry count, int offset table position
+ *   offsets: per entry an int pointing to the entry
+ *   entry:   short key length, key (UTF-8), short payload length,
+ *            payload (UTF-8: postalCode TAB city TAB streetName TAB country)
+ * </pre>
+ *
+ * A prefix query is a binary search for the first key not smaller than the
+ * prefix, followed by a scan while keys still start with it. Keys are compared
+ * directly in the mapped file, so the dataset is never loaded onto the heap and
+ * opening the index only reads the header; pages are faulted in by the OS as
+ * queries touch them.
+ */
+public class AddressIndex implements Closeable {
+
+    static final int MAGIC = 0x41445258;
+    static final int VERSION = 1;
+
+    /**
+     * Fields that can be searched by prefix.
+     */
+    public enum Field {
+        POSTAL_CODE, STREET
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int[] entryCounts = new int[Field.values().length];
+    private final int[] offsetTables = new int[Field.values().length];
+
+    private AddressIndex(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an address index (or unsupported version)");
+        }
+        int sections = buffer.getInt(8);
+        if (sections != Field.values().length) {
+            throw new IOException("Address index has " + sections + " sections, expected " + Field.values().length);
+        }
+        for (int i = 0; i < sections; i++) {
+            entryCounts[i] = buffer.getInt(12 + i * 8);
+            offsetTables[i] = buffer.getInt(12 + i * 8 + 4);
+        }
+    }
+
+    public static AddressIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Address index larger than 2 GB: " + file);
+            }
+            return new AddressIndex(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public int size(Field field) {
+        return entryCounts[field.ordinal()];
+    }
+
+    /**
+     * @return up to {@code limit} addresses whose field starts with {@code prefix}
+     * (case-insensitive), in key order.
+     */
+    public List<Address> autocomplete(Field field, String prefix, int limit) {
+        byte[] key = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int section = field.ordinal();
+        List<Address> result = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(section, key); i < entryCounts[section] && result.size() < limit; i++) {
+            int entry = entryPosition(section, i);
+            if (!startsWith(entry, key)) {
+                break;
+            }
+            result.add(payload(entry));
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int lowerBound(int section, byte[] key) {
+        int low = 0;
+        int high = entryCounts[section];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(entryPosition(section, mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int entryPosition(int section, int index) {
+        return buffer.getInt(offsetTables[section] + index * 4);
+    }
+
+    private int compareKey(int entry, byte[] key) {
+        int length = buffer.getShort(entry) & 0xffff;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(entry + 2 + i) & 0xff) - (key[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    private boolean startsWith(int entry, byte[] prefix) {
+        int length = buffer.getShort(entry) & 0xffff;
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(entry + 2 + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Address payload(int entry) {
+        int payloadPosition = entry + 2 + (buffer.getShort(entry) & 0xffff);
+        byte[] bytes = new byte[buffer.getShort(payloadPosition) & 0xffff];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(payloadPosition + 2 + i);
+        }
+        String[] fields = new String(bytes, StandardCharsets.UTF_8).split("\t", -1);
+
+        Address address = new Address();
+        address.setPostalCode(fields[0]);
+        address.setCity(fields[1]);
+        address.setStreetName(fields[2]);
+        address.setCountry(fields[3]);
+        return address;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,190 @@
+package com.sap.cloud.address.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Offline builder for the {@link AddressIndex} file.
+ *
+ * Reads a CSV address dataset with the columns 'postalCode,city,streetName,country'
+ * (an optional header line starting with 'postalCode' is skipped), collapses it to
+ * the distinct autocomplete entries per field, sorts them and writes the index.
+ * House numbers are not part of the index, so tens of millions of address rows
+ * shrink to the distinct streets per postal code.
+ *
+ * Run with:
+ *   java -cp address.service-0.0.1-SNAPSHOT.jar -Dloader.main=com.sap.cloud.address.service.AddressIndexBuilder
+ *        org.springframework.boot.loader.PropertiesLauncher addresses.csv addresses.idx [delimiter]
+ */
+public class AddressIndexBuilder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AddressIndexBuilder <addresses.csv> <index file> [delimiter]");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        AddressIndexBuilder builder = new AddressIndexBuilder();
+        long rows = builder.read(Paths.get(args[0]), args.length > 2 ? args[2].charAt(0) : ',');
+        builder.write(Paths.get(args[1]));
+        System.out.printf("Indexed %d rows into %d postal code and %d street entries in %d ms%n",
+                rows, builder.postalCodes.size(), builder.streets.size(), System.currentTimeMillis() - start);
+    }
+
+    private final TreeSet<Entry> postalCodes = new TreeSet<>();
+    private final TreeSet<Entry> streets = new TreeSet<>();
+
+    public long read(Path csv, char delimiter) throws IOException {
+        long rows = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || (rows == 0 && line.startsWith("postalCode"))) {
+                    continue;
+                }
+                String[] columns = split(line, delimiter);
+                if (columns.length < 4) {
+                    continue;
+                }
+                add(columns[0].trim(), columns[1].trim(), columns[2].trim(), columns[3].trim());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public void add(String postalCode, String city, String streetName, String country) {
+        postalCodes.add(new Entry(postalCode, String.join("\t", postalCode, city, "", country)));
+        if (!streetName.isEmpty()) {
+            streets.add(new Entry(streetName, String.join("\t", postalCode, city, streetName, country)));
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it in place, so a running
+     * service never maps a half-written index.
+     */
+    public void write(Path file) throws IOException {
+        List<TreeSet<Entry>> sections = new ArrayList<>();
+        sections.add(postalCodes); // AddressIndex.Field.POSTAL_CODE
+        sections.add(streets);     // AddressIndex.Field.STREET
+
+        long[] offsetTables = new long[sections.size()];
+        long position = 12 + sections.size() * 8;
+        for (int i = 0; i < sections.size(); i++) {
+            offsetTables[i] = position;
+            position += sections.get(i).size() * 4L;
+            for (Entry entry : sections.get(i)) {
+                position += entry.size();
+            }
+        }
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Address index would exceed 2 GB (" + position + " bytes)");
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(AddressIndex.MAGIC);
+            out.writeInt(AddressIndex.VERSION);
+            out.writeInt(sections.size());
+            for (int i = 0; i < sections.size(); i++) {
+                out.writeInt(sections.get(i).size());
+                out.writeInt((int) offsetTables[i]);
+            }
+            for (int i = 0; i < sections.size(); i++) {
+                long entryPosition = offsetTables[i] + sections.get(i).size() * 4L;
+                for (Entry entry : sections.get(i)) {
+                    out.writeInt((int) entryPosition);
+                    entryPosition += entry.size();
+                }
+                for (Entry entry : sections.get(i)) {
+                    out.writeShort(entry.key.length);
+                    out.write(entry.key);
+                    out.writeShort(entry.payload.length);
+                    out.write(entry.payload);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String[] split(String line, char delimiter) {
+        List<String> columns = new ArrayList<>(4);
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == delimiter && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns.toArray(new String[0]);
+    }
+
+    /**
+     * An index entry, ordered by its normalized key as unsigned UTF-8 bytes (the order
+     * {@link AddressIndex} searches in) and then by payload.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final byte[] key;
+        final byte[] payload;
+
+        Entry(String key, String payload) {
+            this.key = truncate(AddressIndex.normalize(key).getBytes(StandardCharsets.UTF_8));
+            this.payload = truncate(payload.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size() {
+            return 2 + key.length + 2 + payload.length;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = compare(key, other.key);
+            return result != 0 ? result : compare(payload, other.payload);
+        }
+
+        private static int compare(byte[] a, byte[] b) {
+            int common = Math.min(a.length, b.length);
+            for (int i = 0; i < common; i++) {
+                int diff = (a[i] & 0xff) - (b[i] & 0xff);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+    }
+
+    /**
+     * Cuts UTF-8 bytes to the 0xffff bytes a length prefix can hold, backing up to a
+     * character boundary so that no multi-byte sequence is split.
+     */
+    static byte[] truncate(byte[] bytes) {
+        if (bytes.length <= 0xffff) {
+            return bytes;
+        }
+        int length = 0xffff;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--; // bytes[length] continues the character before the cut
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+}
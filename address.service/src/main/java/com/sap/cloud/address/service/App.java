@@ -1,8 +1,24 @@
 package com.sap.cloud.address.service;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.netflix.eureka.MutableDiscoveryClientOptionalArgs;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
 public class App {
@@ -10,4 +26,93 @@ public class App {
     public static void main(String[] args) {
         SpringApplication.run(App.class, args);
     }
+
+    /**
+     * Installs the {@link AdaptiveLeaseRenewal} filter into the Eureka client's HTTP transport.
+     */
+    @Bean
+    public MutableDiscoveryClientOptionalArgs discoveryClientOptionalArgs(AdaptiveLeaseRenewal adaptiveLeaseRenewal) {
+        MutableDiscoveryClientOptionalArgs args = new MutableDiscoveryClientOptionalArgs();
+        args.setAdditionalFilters(Collections.singletonList(adaptiveLeaseRenewal));
+        return args;
+    }
+
+    /**
+     * The local stand-in broker for change events, used unless another transport is configured.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "events.transport", havingValue = "local", matchIfMissing = true)
+    public LocalChangeEventBroker localChangeEventBroker(@Value("${events.broker.capacity:10000}") int capacity,
+                                                         @Value("${events.broker.max-batch:500}") int maxBatch) {
+        return new LocalChangeEventBroker(capacity, maxBatch);
+    }
+
+    /**
+     * The address autocomplete index, memory-mapped from the file built by {@link AddressIndexBuilder}.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("address.index.file")
+    public AddressIndex addressIndex(@Value("${address.index.file}") String file) throws IOException {
+        return AddressIndex.open(Paths.get(file));
+    }
+
+    /**
+     * The adaptive in-flight request limit, also published as 'http.server.concurrency.*' metrics.
+     */
+    @Bean
+    public ConcurrencyLimit concurrencyLimit(@Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                                             @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                                             @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                             @Value("${concurrency-limit.window-ms:500}") long windowMs,
+                                             @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+                                             @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                             @Value("${concurrency-limit.baseline-windows:120}") int baselineWindows,
+                                             MeterRegistry meterRegistry) {
+        ConcurrencyLimit limit = new ConcurrencyLimit(initialLimit, minLimit, maxLimit, windowMs, smoothing, rttTolerance, baselineWindows);
+        Gauge.builder("http.server.concurrency.limit", limit, ConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("http.server.concurrency.in-flight", limit, ConcurrencyLimit::getInFlight).register(meterRegistry);
+        FunctionCounter.builder("http.server.concurrency.rejected", limit, ConcurrencyLimit::getRejected).register(meterRegistry);
+        return limit;
+    }
+
+    /**
+     * Sheds requests above the adaptive {@link ConcurrencyLimit}; runs right after the timing filter, so shed requests cost next to nothing.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimit concurrencyLimit,
+            @Value("${concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${concurrency-limit.reject-status:503}") int rejectStatus,
+            @Value("${concurrency-limit.exclude-paths:/actuator,/events}") String[] excludePaths) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(concurrencyLimit, rejectStatus, excludePaths));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    /**
+     * Adds the 'Server-Timing' response header (see {@link ServerTiming}); outermost filter, so shed requests are timed too.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${server-timing.enabled:true}") boolean enabled,
+            @Value("${server-timing.exclude-paths:/actuator,/events}") String[] excludePaths) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(excludePaths));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    /**
+     * Passes Tomcat's start time of each request to the {@link ServerTiming} (see {@link ServerTimingValve}).
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> serverTimingValve(
+            @Value("${server-timing.enabled:true}") boolean enabled) {
+        return factory -> {
+            if (enabled) {
+                factory.addEngineValves(new ServerTimingValve());
+            }
+        };
+    }
 }
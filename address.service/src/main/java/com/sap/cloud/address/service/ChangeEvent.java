@@ -0,0 +1,66 @@
+package com.sap.cloud.address.service;
+
+/**
+ * An address change, published by the {@link ChangeEventPublisher}.
+ * The types are the ones advertised in the 'events' metadata of the service.
+ */
+public class ChangeEvent {
+
+    public static final String CUSTOMER_CREATED = "customerCreated";
+    public static final String CUSTOMER_UPDATED = "customerUpdated";
+    public static final String CUSTOMER_DELETED = "customerDeleted";
+
+    private long offset;
+    private String type;
+    private String customerId;
+    private long timestamp;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(String type, String customerId) {
+        this.type = type;
+        this.customerId = customerId;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Position of the event in the broker's log, assigned by the broker.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent [offset=" + offset + ", type=" + type + ", customerId=" + customerId + ", timestamp=" + timestamp + "]";
+    }
+}
@@ -0,0 +1,60 @@
+package com.sap.cloud.address.service;
+
+import java.util.List;
+
+/**
+ * A batch of change events read from the {@link LocalChangeEventBroker}.
+ *
+ * A subscriber passes {@code next} as 'from' of its next read. If 'reset' is set,
+ * events the subscriber asked for are no longer retained (or the broker was
+ * restarted, see 'epoch'), and the subscriber has to assume that anything changed.
+ */
+public class ChangeEventBatch {
+
+    private String epoch;
+    private boolean reset;
+    private long next;
+    private List<ChangeEvent> events;
+
+    public ChangeEventBatch() {
+    }
+
+    public ChangeEventBatch(String epoch, boolean reset, long next, List<ChangeEvent> events) {
+        this.epoch = epoch;
+        this.reset = reset;
+        this.next = next;
+        this.events = events;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public void setNext(long next) {
+        this.next = next;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<ChangeEvent> events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sap.cloud.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes address change events in batches through the configured {@link ChangeEventTransport}.
+ *
+ * {@link #publish(String, String)} only puts the event into a bounded buffer
+ * ('events.publisher.buffer-capacity'). A single sender thread takes up to
+ * 'events.publisher.batch-size' events, waiting up to 'events.publisher.linger-ms'
+ * for a batch to fill, and sends them with one transport call. A failed batch is
+ * retried with growing back-off until the transport accepts it, so events are
+ * delivered at least once and in order. While the transport is down the buffer
+ * fills up; publishers then block for up to 'events.publisher.publish-timeout-ms'
+ * and fail after that, instead of the buffer growing without bounds.
+ */
+@Component
+public class ChangeEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    @Autowired
+    private ChangeEventTransport transport;
+
+    @Value("${events.publisher.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${events.publisher.batch-size:500}")
+    private int batchSize;
+
+    @Value("${events.publisher.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${events.publisher.publish-timeout-ms:1000}")
+    private long publishTimeoutMs;
+
+    private BlockingQueue<ChangeEvent> buffer;
+    private Thread sender;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        sender = new Thread(this::sendLoop, "change-events");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.join(publishTimeoutMs + lingerMs + MAX_BACKOFF_MS);
+        if (!buffer.isEmpty()) {
+            logger.warn("Dropping {} unsent change events on shutdown", buffer.size());
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the buffer stays full for longer than the publish timeout
+     */
+    public void publish(String type, String customerId) {
+        try {
+            if (!buffer.offer(new ChangeEvent(type, customerId), publishTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Change event buffer full, event transport not keeping up");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing change event", ex);
+        }
+    }
+
+    private void sendLoop() {
+        List<ChangeEvent> batch = new ArrayList<>(batchSize);
+        long backoffMs = 100;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    fill(batch);
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                }
+                transport.send(batch);
+                batch.clear();
+                backoffMs = 100;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                if (!running) {
+                    logger.warn("Dropping {} change events on shutdown, transport failed: {}", batch.size() + buffer.size(), ex.getMessage());
+                    return;
+                }
+                logger.warn("Sending {} change events failed, retrying in {} ms: {}", batch.size(), backoffMs, ex.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Waits for the first event, then lingers briefly for more to batch with it.
+     */
+    private void fill(List<ChangeEvent> batch) throws InterruptedException {
+        ChangeEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.currentTimeMillis() + lingerMs;
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            ChangeEvent next = buffer.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sap.cloud.address.service;
+
+import java.util.List;
+
+/**
+ * Transport used by the {@link ChangeEventPublisher} to hand batches of change events to a broker.
+ *
+ * Implementations must only return once the broker has accepted the whole batch,
+ * and throw otherwise; the publisher then retries the same batch (at-least-once).
+ * The {@link LocalChangeEventBroker} is the stand-in used for development and tests.
+ */
+public interface ChangeEventTransport {
+
+    void send(List<ChangeEvent> batch) throws Exception;
+}
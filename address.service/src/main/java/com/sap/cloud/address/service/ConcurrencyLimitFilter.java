@@ -0,0 +1,59 @@
+package com.sap.cloud.address.service;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds requests beyond the current {@link ConcurrencyLimit} before they reach Tomcat's
+ * worker queue or the controllers.
+ *
+ * A shed request is answered right away with 'concurrency-limit.reject-status'
+ * (503 by default) and 'Retry-After', which the Ribbon clients retry on another
+ * instance. Paths listed in 'concurrency-limit.exclude-paths' (health checks,
+ * long-running streams) are neither limited nor measured.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimit limit;
+    private final int rejectStatus;
+    private final String[] excludedPaths;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimit limit, int rejectStatus, String[] excludedPaths) {
+        this.limit = limit;
+        this.rejectStatus = rejectStatus;
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (!excluded.isEmpty() && path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            response.setStatus(rejectStatus);
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+}
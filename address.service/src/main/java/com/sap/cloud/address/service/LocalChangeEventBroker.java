@@ -0,0 +1,110 @@
+package com.sap.cloud.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the event broker advertised in the 'events' metadata.
+ *
+ * Keeps the last 'events.broker.capacity' events in a ring buffer, each with an
+ * increasing offset. Subscribers read them over HTTP ('GET /events', see
+ * {@link RESTEndpoint}) by offset, waiting up to a given time for new events
+ * (long polling), and keep track of their own position. The endpoint waits
+ * asynchronously ({@link #readOrAwait}), so a waiting subscriber does not hold a
+ * request thread. Since a subscriber only moves on after it has processed a batch,
+ * every event is delivered at least once as long as it is retained. A subscriber that falls behind by more than the capacity,
+ * or that reads from a restarted broker (different epoch), gets a 'reset' instead.
+ *
+ * Events live in memory only, on the instance that published them.
+ */
+public class LocalChangeEventBroker implements ChangeEventTransport {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final ChangeEvent[] log;
+    private final int maxBatch;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private long head;
+
+    public LocalChangeEventBroker(int capacity, int maxBatch) {
+        this.log = new ChangeEvent[capacity];
+        this.maxBatch = maxBatch;
+    }
+
+    @Override
+    public void send(List<ChangeEvent> batch) {
+        List<Waiter> woken;
+        synchronized (this) {
+            for (ChangeEvent event : batch) {
+                ChangeEvent stored = new ChangeEvent(event.getType(), event.getCustomerId());
+                stored.setTimestamp(event.getTimestamp());
+                stored.setOffset(head);
+                log[(int) (head % log.length)] = stored;
+                head++;
+            }
+            woken = new ArrayList<>(waiters);
+            waiters.clear();
+            for (Waiter waiter : woken) {
+                waiter.batch = waiter.from < oldest() ? batch(true, oldest(), waiter.max) : batch(false, waiter.from, waiter.max);
+            }
+        }
+        // outside the lock: completing an asynchronous request may write the response
+        for (Waiter waiter : woken) {
+            waiter.onEvents.accept(waiter.batch);
+        }
+    }
+
+    /**
+     * Reads up to {@code max} events starting at offset {@code from}, without blocking:
+     * returns the batch right away if there are events (or a reset) at that offset. Otherwise {@code onEvents} is called
+     * with the batch once events are sent and {@code null} is returned, or an empty batch
+     * if {@code onEvents} is {@code null}. A waiting subscriber that gives up has to be
+     * {@link #cancel cancelled}.
+     */
+    public synchronized ChangeEventBatch readOrAwait(String epoch, long from, int max, Consumer<ChangeEventBatch> onEvents) {
+        boolean reset = epoch != null && !epoch.isEmpty() && !epoch.equals(this.epoch);
+        if (reset || from > head || from < oldest()) {
+            return batch(true, oldest(), max);
+        }
+        if (from < head || onEvents == null) {
+            return batch(false, from, max);
+        }
+        waiters.add(new Waiter(from, max, onEvents));
+        return null;
+    }
+
+    public synchronized void cancel(Consumer<ChangeEventBatch> onEvents) {
+        waiters.removeIf(waiter -> waiter.onEvents == onEvents);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    private ChangeEventBatch batch(boolean reset, long from, int max) {
+        long end = Math.min(head, from + Math.min(max, maxBatch));
+        List<ChangeEvent> events = new ArrayList<>((int) (end - from));
+        for (long offset = from; offset < end; offset++) {
+            events.add(log[(int) (offset % log.length)]);
+        }
+        return new ChangeEventBatch(epoch, reset, end, events);
+    }
+
+    private long oldest() {
+        return Math.max(0, head - log.length);
+    }
+
+    private static class Waiter {
+        final long from;
+        final int max;
+        final Consumer<ChangeEventBatch> onEvents;
+        ChangeEventBatch batch;
+
+        Waiter(long from, int max, Consumer<ChangeEventBatch> onEvents) {
+            this.from = from;
+            this.max = max;
+            this.onEvents = onEvents;
+        }
+    }
+}
@@ -1,13 +1,41 @@
 package com.sap.cloud.address.service;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
 
 
 @RestController
 public class RESTEndpoint {
 
+    private static final int MAX_AUTOCOMPLETE_RESULTS = 100;
+    private static final long MAX_EVENT_WAIT_MS = 30000;
+
+    private final Map<String, Address> customerAddresses = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    private AddressIndex addressIndex;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
+    @Autowired(required = false)
+    private LocalChangeEventBroker changeEventBroker;
+
     @RequestMapping(value = "/address", method = RequestMethod.GET)
     public Address firstPage() {
 
@@ -21,4 +49,91 @@ public class RESTEndpoint {
         return address;
     }
 
+    /**
+     * Autocomplete for postal codes ('field=postalCode') or street names ('field=street'),
+     * served from the memory-mapped {@link AddressIndex}.
+     */
+    @RequestMapping(value = "/address/autocomplete", method = RequestMethod.GET)
+    public List<Address> autocomplete(@RequestParam("prefix") String prefix,
+                                      @RequestParam(value = "field", defaultValue = "street") String field,
+                                      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (addressIndex == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No address index configured (address.index.file)");
+        }
+        AddressIndex.Field indexField;
+        if ("street".equals(field)) {
+            indexField = AddressIndex.Field.STREET;
+        } else if ("postalCode".equals(field)) {
+            indexField = AddressIndex.Field.POSTAL_CODE;
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field '" + field + "', expected 'street' or 'postalCode'");
+        }
+        return addressIndex.autocomplete(indexField, prefix, Math.min(limit, MAX_AUTOCOMPLETE_RESULTS));
+    }
+
+    @RequestMapping(value = "/address/{customerId}", method = RequestMethod.GET)
+    public Address get(@PathVariable("customerId") String customerId) {
+        Address address = customerAddresses.get(customerId);
+        if (address == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No address for customer " + customerId);
+        }
+        return address;
+    }
+
+    /**
+     * Creates or replaces the address of a customer and publishes 'customerCreated' or 'customerUpdated'.
+     * The event is published after the change, so subscribers never re-read the old address.
+     */
+    @RequestMapping(value = "/address/{customerId}", method = RequestMethod.PUT)
+    public Address put(@PathVariable("customerId") String customerId, @RequestBody Address address) {
+        Address previous = customerAddresses.put(customerId, address);
+        publish(previous == null ? ChangeEvent.CUSTOMER_CREATED : ChangeEvent.CUSTOMER_UPDATED, customerId);
+        return address;
+    }
+
+    /**
+     * Deletes the address of a customer and publishes 'customerDeleted'.
+     * Idempotent: deleting a missing address answers 204 as well and publishes the
+     * event again, so a DELETE retried after a failed publish (503) is not lost.
+     */
+    @RequestMapping(value = "/address/{customerId}", method = RequestMethod.DELETE)
+    public ResponseEntity<Void> delete(@PathVariable("customerId") String customerId) {
+        customerAddresses.remove(customerId);
+        publish(ChangeEvent.CUSTOMER_DELETED, customerId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Change event feed of the {@link LocalChangeEventBroker} (long polling).
+     * The request is completed asynchronously, a waiting subscriber holds no request thread.
+     */
+    @RequestMapping(value = "/events", method = RequestMethod.GET)
+    public DeferredResult<ChangeEventBatch> events(@RequestParam(value = "epoch", required = false) String epoch,
+                                                   @RequestParam(value = "from", defaultValue = "0") long from,
+                                                   @RequestParam(value = "max", defaultValue = "500") int max,
+                                                   @RequestParam(value = "waitMs", defaultValue = "0") long waitMs) {
+        if (changeEventBroker == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Change events are not served locally (events.transport)");
+        }
+        ChangeEventBatch noEvents = new ChangeEventBatch(changeEventBroker.getEpoch(), false, from, Collections.emptyList());
+        DeferredResult<ChangeEventBatch> result = new DeferredResult<>(Math.max(1, Math.min(waitMs, MAX_EVENT_WAIT_MS)), noEvents);
+        Consumer<ChangeEventBatch> onEvents = result::setResult;
+        ChangeEventBatch batch = changeEventBroker.readOrAwait(epoch, from, max, waitMs > 0 ? onEvents : null);
+        if (batch != null) {
+            result.setResult(batch);
+        } else {
+            result.onCompletion(() -> changeEventBroker.cancel(onEvents));
+        }
+        return result;
+    }
+
+    private void publish(String type, String customerId) {
+        try {
+            changeEventPublisher.publish(type, customerId);
+        } catch (IllegalStateException ex) {
+            // the change itself is applied; PUT and DELETE can be retried
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,179 @@
+package com.sap.cloud.address.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+
+/**
+ * Warm-up gate for the address service.
+ *
+ * The instance registers with Eureka as STARTING (see 'eureka.instance.initial-status'
+ * in application.yml) and is therefore not handed out to clients. Once the web server
+ * is up, this component calls the {@link RESTEndpoint} paths over the local port a
+ * number of times so that JIT, Jackson serializers and the Tomcat connector are warm.
+ * The autocomplete paths ('warmup.index-paths') are only called when an
+ * {@link AddressIndex} is configured; without one they would only answer 503.
+ * Only then the instance status is switched to UP.
+ *
+ * A call answered with a client error (e.g. 404 for an empty store) has passed
+ * through the whole stack and counts as warm-up. Other failures (the server does
+ * not answer, 5xx) are retried with a growing pause, and only rounds in which all
+ * paths succeeded count. If 'warmup.max-duration-ms' runs out while calls still
+ * fail, a WARN is logged and the instance stays OUT_OF_SERVICE, unless
+ * 'warmup.up-on-failure' is set. If it runs out while the calls succeed, the
+ * instance is just not fully warm and goes UP.
+ *
+ * When Eureka health checks are enabled, the status is also reported through this
+ * {@link HealthIndicator}. Otherwise the next heartbeat would derive UP from the
+ * health endpoint before warm-up is done.
+ */
+@Component
+public class WarmUp implements HealthIndicator, ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final long MIN_RETRY_PAUSE_MS = 100;
+    private static final long MAX_RETRY_PAUSE_MS = 5000;
+
+    private final AtomicBoolean warm = new AtomicBoolean(false);
+
+    @Autowired
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:500}")
+    private int iterations;
+
+    @Value("${warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    @Value("${warmup.up-on-failure:false}")
+    private boolean upOnFailure;
+
+    private volatile boolean failed;
+
+    @Value("${warmup.paths:/address}")
+    private String[] paths;
+
+    @Value("${warmup.index-paths:}")
+    private String[] indexPaths;
+
+    @Autowired(required = false)
+    private AddressIndex addressIndex;
+
+    @Override
+    public Health health() {
+        if (warm.get()) {
+            return Health.up().build();
+        }
+        if (failed) {
+            return Health.outOfService().withDetail("warmup", "failed").build();
+        }
+        return Health.outOfService().withDetail("warmup", "in progress").build();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            markUp();
+            return;
+        }
+        Thread warmUpThread = new Thread(this::warmUp, "warm-up");
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    private void warmUp() {
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port", "8080");
+        RestTemplate restTemplate = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
+        HttpEntity<?> entity = new HttpEntity<>(headers);
+        List<String> warmUpPaths = new ArrayList<>(Arrays.asList(paths));
+        if (addressIndex != null) {
+            warmUpPaths.addAll(Arrays.asList(indexPaths));
+        }
+
+        long start = System.currentTimeMillis();
+        long deadline = start + maxDurationMs;
+        int rounds = 0;
+        int calls = 0;
+        int failures = 0;
+        long pauseMs = MIN_RETRY_PAUSE_MS;
+        String lastFailure = null;
+        boolean lastRoundFailed = false;
+        while (rounds < iterations && System.currentTimeMillis() < deadline) {
+            lastRoundFailed = false;
+            for (String path : warmUpPaths) {
+                try {
+                    restTemplate.exchange(baseUrl + path, HttpMethod.GET, entity, String.class);
+                } catch (HttpClientErrorException ex) {
+                    // answered by the handler: warms the path as well
+                } catch (Exception ex) {
+                    failures++;
+                    lastRoundFailed = true;
+                    lastFailure = path + ": " + ex.getMessage();
+                }
+                calls++;
+            }
+            if (!lastRoundFailed) {
+                rounds++;
+                pauseMs = MIN_RETRY_PAUSE_MS;
+                continue;
+            }
+            try {
+                Thread.sleep(Math.max(0, Math.min(pauseMs, deadline - System.currentTimeMillis())));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pauseMs = Math.min(pauseMs * 2, MAX_RETRY_PAUSE_MS);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (!lastRoundFailed) {
+            logger.info("Warm-up finished: {} of {} rounds, {} calls ({} failed) in {} ms", rounds, iterations, calls, failures, durationMs);
+            markUp();
+        } else if (upOnFailure) {
+            logger.warn("Warm-up failed after {} ms ({} of {} calls failed, last: {}), reporting UP anyway (warmup.up-on-failure)",
+                    durationMs, failures, calls, lastFailure);
+            markUp();
+        } else {
+            failed = true;
+            logger.warn("Warm-up failed after {} ms ({} of {} calls failed, last: {}), staying OUT_OF_SERVICE",
+                    durationMs, failures, calls, lastFailure);
+            applicationInfoManager.setInstanceStatus(InstanceStatus.OUT_OF_SERVICE);
+        }
+    }
+
+    private void markUp() {
+        warm.set(true);
+        applicationInfoManager.setInstanceStatus(InstanceStatus.UP);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sap.cloud.address.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link AddressIndex} and {@link AddressIndexBuilder}.
+ */
+public class AddressIndexTest extends TestCase {
+
+    private Path file;
+    private AddressIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        AddressIndexBuilder builder = new AddressIndexBuilder();
+        builder.add("69126", "Heidelberg", "Franz-Liszt-Strasse", "Germany");
+        builder.add("69126", "Heidelberg", "Franz-Liszt-Strasse", "Germany");
+        builder.add("69117", "Heidelberg", "Hauptstrasse", "Germany");
+        builder.add("10115", "Berlin", "Friedrichstrasse", "Germany");
+        builder.add("80331", "München", "Färbergraben", "Germany");
+
+        file = Files.createTempFile("addresses", ".idx");
+        builder.write(file);
+        index = AddressIndex.open(file);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        index.close();
+        Files.deleteIfExists(file);
+    }
+
+    public void testStreetPrefixIsCaseInsensitiveAndSorted() {
+        List<Address> result = index.autocomplete(AddressIndex.Field.STREET, "F", 10);
+        assertEquals(3, result.size());
+        assertEquals("Franz-Liszt-Strasse", result.get(0).getStreetName());
+        assertEquals("Friedrichstrasse", result.get(1).getStreetName());
+        assertEquals("Färbergraben", result.get(2).getStreetName());
+        assertEquals("München", result.get(2).getCity());
+    }
+
+    public void testPostalCodePrefix() {
+        List<Address> result = index.autocomplete(AddressIndex.Field.POSTAL_CODE, "691", 10);
+        assertEquals(2, result.size());
+        assertEquals("69117", result.get(0).getPostalCode());
+        assertEquals("69126", result.get(1).getPostalCode());
+        assertEquals("Heidelberg", result.get(1).getCity());
+    }
+
+    public void testLimitAndNoMatch() {
+        assertEquals(1, index.autocomplete(AddressIndex.Field.STREET, "f", 1).size());
+        assertTrue(index.autocomplete(AddressIndex.Field.STREET, "xyz", 10).isEmpty());
+        assertTrue(index.autocomplete(AddressIndex.Field.POSTAL_CODE, "", 10).isEmpty());
+        assertEquals(4, index.size(AddressIndex.Field.STREET));
+        assertEquals(4, index.size(AddressIndex.Field.POSTAL_CODE));
+    }
+
+    public void testTruncateKeepsCharactersWhole() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 0x8000) {
+            text.append('ü'); // two bytes each, the cut at 0xffff falls into one
+        }
+        byte[] truncated = AddressIndexBuilder.truncate(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0xfffe, truncated.length);
+        assertTrue(new String(truncated, StandardCharsets.UTF_8).endsWith("ü"));
+        assertEquals(0xffff, AddressIndexBuilder.truncate(new byte[0x10000]).length);
+    }
+}
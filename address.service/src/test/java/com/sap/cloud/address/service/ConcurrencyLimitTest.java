@@ -0,0 +1,81 @@
+package com.sap.cloud.address.service;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link ConcurrencyLimit}. A window of 0 ms updates the limit after every 10 samples.
+ */
+public class ConcurrencyLimitTest extends TestCase {
+
+    private static final long MS = 1000000L;
+
+    public void testRejectsAboveLimit() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(2, 1, 10, 0, 0.2, 1.5, 100);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+        limit.release(10 * MS);
+        assertTrue(limit.tryAcquire());
+    }
+
+    public void testGrowsWhileLatencyIsStable() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 100, 0, 0.2, 1.5, 100);
+        for (int window = 0; window < 20; window++) {
+            saturate(limit, 10 * MS);
+        }
+        assertTrue("limit " + limit.getLimit(), limit.getLimit() > 15);
+    }
+
+    public void testShrinksWhenLatencyRises() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(50, 1, 100, 0, 0.2, 1.5, 100);
+        saturate(limit, 10 * MS);
+        // until the long-term latency has followed the rise
+        for (int window = 0; window < 5; window++) {
+            saturate(limit, 40 * MS);
+        }
+        assertTrue("limit " + limit.getLimit(), limit.getLimit() < 30);
+    }
+
+    public void testMixedRequestCostsAreNotQueueing() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 100, 0, 0.2, 1.5, 100);
+        for (int window = 0; window < 20; window++) {
+            // cheap and expensive endpoints in the same window, without any queueing
+            int slots = limit.getLimit();
+            for (int i = 0; i < slots; i++) {
+                assertTrue(limit.tryAcquire());
+            }
+            for (int i = 0; i < slots; i++) {
+                limit.release(i % 2 == 0 ? MS : 50 * MS);
+            }
+        }
+        assertTrue("limit " + limit.getLimit(), limit.getLimit() > 15);
+    }
+
+    public void testDoesNotGrowWhenIdle() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(20, 1, 100, 0, 0.2, 1.5, 100);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(10 * MS);
+        }
+        assertEquals(20, limit.getLimit());
+    }
+
+    /**
+     * One window in which all slots of the limit are used, all requests with the given latency.
+     */
+    private static void saturate(ConcurrencyLimit limit, long rttNanos) {
+        int slots = Math.max(10, limit.getLimit());
+        int acquired = 0;
+        while (acquired < slots && limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(rttNanos);
+        }
+        for (int i = acquired; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.sap.cloud.address.service;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link LeaseRenewalSchedule}: the interval grows and shrinks without the lease ever lapsing.
+ */
+public class LeaseRenewalScheduleTest extends TestCase {
+
+    public void testTargetIntervalDoublesUpToMax() {
+        LeaseRenewalSchedule schedule = new LeaseRenewalSchedule(30, 90, 120, 300, 3);
+
+        assertEquals(30, schedule.targetIntervalSecs(0));
+        assertEquals(30, schedule.targetIntervalSecs(299_999));
+        assertEquals(60, schedule.targetIntervalSecs(300_000));
+        assertEquals(120, schedule.targetIntervalSecs(600_000));
+        assertEquals(120, schedule.targetIntervalSecs(86_400_000));
+    }
+
+    public void testFixedNeverChanges() {
+        LeaseRenewalSchedule schedule = LeaseRenewalSchedule.fixed(30, 90);
+
+        assertFalse(schedule.adjust(86_400_000, true, true));
+        assertEquals(30, schedule.getIntervalSecs());
+        assertEquals(90, schedule.getDurationSecs());
+    }
+
+    public void testLongerIntervalWaitsForRegisteredDuration() {
+        LeaseRenewalSchedule schedule = new LeaseRenewalSchedule(30, 90, 120, 300, 3);
+
+        assertTrue(schedule.adjust(300_000, true, true));
+        assertEquals(30, schedule.getIntervalSecs());
+        assertEquals(180, schedule.getDurationSecs());
+        assertFalse(schedule.adjust(300_000, false, true));
+        assertEquals(30, schedule.getIntervalSecs());
+        assertTrue(schedule.adjust(300_000, true, true));
+        assertEquals(60, schedule.getIntervalSecs());
+    }
+
+    public void testShorterDurationWaitsForRenewal() {
+        LeaseRenewalSchedule schedule = new LeaseRenewalSchedule(30, 90, 120, 300, 3);
+        schedule.adjust(300_000, true, true);
+        schedule.adjust(300_000, true, true);
+
+        assertTrue(schedule.adjust(0, true, false));
+        assertEquals(30, schedule.getIntervalSecs());
+        assertEquals(180, schedule.getDurationSecs());
+        assertFalse(schedule.adjust(0, true, false));
+        assertTrue(schedule.adjust(0, true, true));
+        assertEquals(90, schedule.getDurationSecs());
+    }
+
+    public void testLeaseNeverLapses() {
+        assertLeaseNeverLapses(3, 30);
+    }
+
+    public void testLeaseNeverLapsesWithoutSlack() {
+        assertLeaseNeverLapses(1, 240); // lease duration = renewal interval, slow registration
+    }
+
+    /**
+     * Two hours of an instance, second by second, DOWN for a minute after one hour. The server
+     * learns about a new lease duration {@code registrationDelaySecs} after it changed (the
+     * instance info replication), and a new interval applies after the next renewal (the
+     * heartbeat task reschedules itself).
+     */
+    private static void assertLeaseNeverLapses(int expirationFactor, int registrationDelaySecs) {
+        LeaseRenewalSchedule schedule = new LeaseRenewalSchedule(30, 90, 120, 300, expirationFactor);
+        int registeredDurationSecs = 90;
+        long registrationDue = -1;
+        long stableSince = 0;
+        long lastRenewal = 0;
+        long nextRenewal = 30;
+        long intervalChangedAt = 0;
+
+        for (long now = 1; now <= 7200; now++) {
+            if (now >= 3600 && now < 3660) {
+                stableSince = now;
+            }
+            if (now == registrationDue) {
+                registeredDurationSecs = schedule.getDurationSecs();
+                registrationDue = -1;
+            }
+            if (now == nextRenewal) {
+                lastRenewal = now;
+                nextRenewal = now + schedule.getIntervalSecs();
+            }
+            assertTrue("lease lapsed at " + now + " s", now - lastRenewal <= registeredDurationSecs);
+
+            if (now % 30 == 0) {
+                int intervalSecs = schedule.getIntervalSecs();
+                if (schedule.adjust((now - stableSince) * 1000, registrationDue < 0, lastRenewal > intervalChangedAt)) {
+                    if (schedule.getIntervalSecs() != intervalSecs) {
+                        intervalChangedAt = now;
+                    }
+                    if (registrationDue < 0) {
+                        registrationDue = now + registrationDelaySecs;
+                    }
+                }
+            }
+            if (now == 3599) {
+                assertEquals(120, schedule.getIntervalSecs());
+            }
+            if (now == 3900) {
+                assertEquals(30, schedule.getIntervalSecs());
+                assertEquals(90, schedule.getDurationSecs());
+            }
+        }
+        assertEquals(120, schedule.getIntervalSecs());
+        assertEquals(Math.max(90, 120 * expirationFactor), registeredDurationSecs);
+    }
+}
@@ -0,0 +1,93 @@
+package com.sap.cloud.address.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link LocalChangeEventBroker}.
+ */
+public class LocalChangeEventBrokerTest extends TestCase {
+
+    public void testReadsFromOffsetInBatches() throws Exception {
+        LocalChangeEventBroker broker = new LocalChangeEventBroker(10, 2);
+        broker.send(Arrays.asList(created("1"), created("2"), created("3")));
+
+        ChangeEventBatch batch = broker.readOrAwait("", 0, 10, null);
+        assertFalse(batch.isReset());
+        assertEquals(2, batch.getEvents().size());
+        assertEquals(2, batch.getNext());
+
+        batch = broker.readOrAwait(batch.getEpoch(), batch.getNext(), 10, null);
+        assertEquals(1, batch.getEvents().size());
+        assertEquals("3", batch.getEvents().get(0).getCustomerId());
+        assertEquals(2, batch.getEvents().get(0).getOffset());
+        assertEquals(3, batch.getNext());
+    }
+
+    public void testAsyncReadCompletesOnSendFromAnotherThread() throws Exception {
+        LocalChangeEventBroker broker = new LocalChangeEventBroker(10, 10);
+        CompletableFuture<ChangeEventBatch> completed = new CompletableFuture<>();
+        assertNull(broker.readOrAwait(broker.getEpoch(), 0, 10, completed::complete));
+
+        new Thread(() -> {
+            sleep(50);
+            broker.send(Arrays.asList(created("1")));
+        }).start();
+        ChangeEventBatch batch = completed.get(10, TimeUnit.SECONDS);
+        assertEquals(1, batch.getEvents().size());
+    }
+
+    public void testAsyncReadCompletesOnSend() throws Exception {
+        LocalChangeEventBroker broker = new LocalChangeEventBroker(10, 10);
+        List<ChangeEventBatch> completed = new ArrayList<>();
+        Consumer<ChangeEventBatch> onEvents = completed::add;
+
+        assertTrue(broker.readOrAwait(broker.getEpoch(), 0, 10, null).getEvents().isEmpty());
+        assertNull(broker.readOrAwait(broker.getEpoch(), 0, 10, onEvents));
+        broker.send(Arrays.asList(created("1")));
+        assertEquals(1, completed.size());
+        assertEquals("1", completed.get(0).getEvents().get(0).getCustomerId());
+        assertEquals(1, completed.get(0).getNext());
+
+        // events that are already there are returned right away
+        assertEquals(1, broker.readOrAwait(broker.getEpoch(), 0, 10, onEvents).getEvents().size());
+
+        // a cancelled read is not completed
+        assertNull(broker.readOrAwait(broker.getEpoch(), 1, 10, onEvents));
+        broker.cancel(onEvents);
+        broker.send(Arrays.asList(created("2")));
+        assertEquals(1, completed.size());
+    }
+
+    public void testResetWhenFallenBehindOrRestarted() throws Exception {
+        LocalChangeEventBroker broker = new LocalChangeEventBroker(3, 10);
+        broker.send(Arrays.asList(created("1"), created("2"), created("3"), created("4"), created("5")));
+
+        ChangeEventBatch batch = broker.readOrAwait(broker.getEpoch(), 1, 10, null);
+        assertTrue(batch.isReset());
+        assertEquals(3, batch.getEvents().size());
+        assertEquals("3", batch.getEvents().get(0).getCustomerId());
+        assertEquals(5, batch.getNext());
+
+        assertTrue(broker.readOrAwait("another-epoch", 5, 10, null).isReset());
+        assertFalse(broker.readOrAwait(broker.getEpoch(), 5, 10, null).isReset());
+    }
+
+    private static ChangeEvent created(String customerId) {
+        return new ChangeEvent(ChangeEvent.CUSTOMER_CREATED, customerId);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.sap.cloud.employee.service.client;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Latency breakdown of one service call, recorded by {@link CallTimings}.
+ *
+ * <ul>
+ * <li>discovery: from the start of the call until the HTTP request is created for a
+ * concrete instance (registry lookup, load balancing; for the DC clients also the
+ * logging of the instances)</li>
+ * <li>exchange: from creating the request until the response headers arrived, over
+ * all attempts if Ribbon retried</li>
+ * <li>server: the phases reported by the service in its 'Server-Timing' header</li>
+ * <li>network: exchange minus the server's total (connections, transfer, the
+ * server's accept backlog and a busy worker pool, which the server cannot see)</li>
+ * <li>read: from the response headers until the call returned (reading and
+ * deserializing the body)</li>
+ * </ul>
+ * All durations are in milliseconds.
+ */
+public class CallTiming {
+
+    private final long timestamp = System.currentTimeMillis();
+    private final long start = System.nanoTime();
+    private final String client;
+    private final String service;
+
+    private String instance;
+    private int status;
+    private int attempts;
+    private String error;
+    private Map<String, Double> serverMs = Collections.emptyMap();
+    private long exchangeStart;
+    private long exchangeEnd;
+    private long end;
+
+    CallTiming(String client, String service) {
+        this.client = client;
+        this.service = service;
+    }
+
+    void exchangeStarted(URI uri) {
+        long now = System.nanoTime();
+        if (exchangeStart == 0) {
+            exchangeStart = now;
+        }
+        exchangeEnd = 0;
+        instance = uri.getHost() + ":" + uri.getPort();
+        attempts++;
+    }
+
+    void exchanged(int status, Map<String, Double> serverMs) {
+        this.exchangeEnd = System.nanoTime();
+        this.status = status;
+        this.serverMs = serverMs;
+        this.error = null;
+    }
+
+    void failed(Exception ex) {
+        this.exchangeEnd = System.nanoTime();
+        this.error = ex.toString();
+    }
+
+    void ended() {
+        end = System.nanoTime();
+        if (exchangeStart == 0) {
+            exchangeStart = end;
+        }
+        if (exchangeEnd == 0) {
+            exchangeEnd = end;
+        }
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public double getDiscoveryMs() {
+        return millis(exchangeStart - start);
+    }
+
+    public double getExchangeMs() {
+        return millis(exchangeEnd - exchangeStart);
+    }
+
+    public Map<String, Double> getServerMs() {
+        return serverMs;
+    }
+
+    /**
+     * @return null if the service did not report its total time
+     */
+    public Double getNetworkMs() {
+        Double serverTotal = serverMs.get("total");
+        return serverTotal == null ? null : Math.max(0, round(getExchangeMs() - serverTotal));
+    }
+
+    public double getReadMs() {
+        return millis(end - exchangeEnd);
+    }
+
+    public double getTotalMs() {
+        return millis(end - start);
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+}
@@ -0,0 +1,211 @@
+package com.sap.cloud.employee.service.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import feign.Client;
+import feign.Response;
+
+/**
+ * Keeps the {@link CallTiming}s of the most recent calls ('call-timings.capacity')
+ * in a ring buffer, served at /actuator/calltimings.
+ *
+ * A call is timed between {@link #begin(String, String)} and {@link #end(CallTiming)}
+ * on the calling thread. The HTTP exchange in between is observed by the
+ * {@link #requestFactory(ClientHttpRequestFactory) request factory} of the REST
+ * templates and by the {@link #feignClient(Client) Feign client}, which sit below
+ * the load balancer and therefore see the chosen instance and the service's
+ * 'Server-Timing' header. Recording a call is a single array write, no locks.
+ */
+@Component
+public class CallTimings {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private static final ThreadLocal<CallTiming> current = new ThreadLocal<>();
+
+    @Value("${call-timings.capacity:1024}")
+    private int capacity;
+
+    private AtomicReferenceArray<CallTiming> calls;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public CallTimings() {
+    }
+
+    CallTimings(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    public void start() {
+        calls = new AtomicReferenceArray<>(capacity);
+    }
+
+    public CallTiming begin(String client, String service) {
+        CallTiming timing = new CallTiming(client, service);
+        current.set(timing);
+        return timing;
+    }
+
+    public void end(CallTiming timing) {
+        timing.ended();
+        current.remove();
+        calls.set((int) (recorded.getAndIncrement() % capacity), timing);
+    }
+
+    /**
+     * @return the recorded calls, most recent first
+     */
+    public List<CallTiming> recent() {
+        long last = recorded.get();
+        List<CallTiming> recent = new ArrayList<>();
+        for (long i = last - 1; i >= Math.max(0, last - capacity); i--) {
+            CallTiming timing = calls.get((int) (i % capacity));
+            if (timing != null) {
+                recent.add(timing);
+            }
+        }
+        return recent;
+    }
+
+    public ClientHttpRequestFactory requestFactory(ClientHttpRequestFactory delegate) {
+        return (uri, method) -> {
+            ClientHttpRequest request = delegate.createRequest(uri, method);
+            CallTiming timing = current.get();
+            if (timing == null) {
+                return request;
+            }
+            timing.exchangeStarted(uri);
+            return new TimedRequest(request, timing);
+        };
+    }
+
+    public Client feignClient(Client delegate) {
+        return (request, options) -> {
+            CallTiming timing = current.get();
+            if (timing == null) {
+                return delegate.execute(request, options);
+            }
+            timing.exchangeStarted(URI.create(request.url()));
+            try {
+                Response response = delegate.execute(request, options);
+                timing.exchanged(response.status(), parseServerTiming(header(response.headers(), SERVER_TIMING)));
+                return response;
+            } catch (IOException | RuntimeException ex) {
+                timing.failed(ex);
+                throw ex;
+            }
+        };
+    }
+
+    /**
+     * Parses 'Server-Timing' values such as 'handler;dur=1.2, total;dur=1.5' into metric name and duration.
+     */
+    static Map<String, Double> parseServerTiming(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (String value : values) {
+            for (String metric : value.split(",")) {
+                String[] parts = metric.split(";");
+                String name = parts[0].trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                Double duration = null;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("dur=")) {
+                        try {
+                            duration = Double.valueOf(parameter.substring(4));
+                        } catch (NumberFormatException ex) {
+                            // a malformed metric is left out
+                        }
+                    }
+                }
+                if (duration != null) {
+                    metrics.put(name, duration);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static Collection<String> header(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static class TimedRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+        private final CallTiming timing;
+
+        TimedRequest(ClientHttpRequest delegate, CallTiming timing) {
+            this.delegate = delegate;
+            this.timing = timing;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                ClientHttpResponse response = delegate.execute();
+                timing.exchanged(response.getRawStatusCode(), parseServerTiming(response.getHeaders().get(SERVER_TIMING)));
+                return response;
+            } catch (IOException | RuntimeException ex) {
+                timing.failed(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public String getMethodValue() {
+            return delegate.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dumps the latency breakdown of the most recent calls, see {@link CallTimings}.
+ */
+@Component
+@Endpoint(id = "calltimings")
+public class CallTimingsEndpoint {
+
+    @Autowired
+    private CallTimings callTimings;
+
+    @ReadOperation
+    public List<CallTiming> calls() {
+        return callTimings.recent();
+    }
+}
@@ -8,15 +8,25 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import feign.Client;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
+@RibbonClients(defaultConfiguration = SlowStartRibbonConfiguration.class)
 public class ClientApp {
 
     private static final Logger logger = LoggerFactory.getLogger(ClientApp.class);
@@ -36,6 +46,9 @@ public class ClientApp {
         FeignEmployeeServiceClient feignEmployeeServiceClient = ctx.getBean(FeignEmployeeServiceClient.class);
         logger.info("{}", feignEmployeeServiceClient);
         feignEmployeeServiceClient.getEmployee();
+        
+        EmployeeProfileEndpoint employeeProfileEndpoint = ctx.getBean(EmployeeProfileEndpoint.class);
+        logger.info("Employee profile (employee and address fetched in parallel): {}", employeeProfileEndpoint.profile("1"));
 
     }
 
@@ -51,7 +64,25 @@ public class ClientApp {
     
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CallTimings callTimings) {
+        return new RestTemplate(callTimings.requestFactory(new SimpleClientHttpRequestFactory()));
+    }
+    
+    /**
+     * Feign's load-balancing client as configured by default, with the HTTP exchange timed by {@link CallTimings}.
+     */
+    @Bean
+    public Client feignClient(CachingSpringLoadBalancerFactory cachingFactory, SpringClientFactory clientFactory, CallTimings callTimings) {
+        return new LoadBalancerFeignClient(callTimings.feignClient(new Client.Default(null, null)), cachingFactory, clientFactory);
+    }
+
+    /**
+     * Log events dropped by the asynchronous logging (see {@link WarnBlockingAsyncAppender}).
+     */
+    @Bean
+    public FunctionCounter droppedLogEvents(MeterRegistry meterRegistry) {
+        return FunctionCounter.builder("logging.async.dropped", WarnBlockingAsyncAppender.class, type -> WarnBlockingAsyncAppender.getDropped())
+                .description("Log events below WARN dropped because the asynchronous logging queue was full")
+                .register(meterRegistry);
     }
 }
@@ -14,17 +14,21 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.EurekaClient;
 
 public class DCEmployeeServiceClient {
 
     private static final Logger logger = LoggerFactory.getLogger(DCEmployeeServiceClient.class);
+
+    private static final ObjectWriter instanceInfoWriter = new ObjectMapper().writerWithDefaultPrettyPrinter();
     
     @Autowired
     private DiscoveryClient discoveryClient;
@@ -32,20 +36,42 @@ public class DCEmployeeServiceClient {
     @Autowired
     private EurekaClient eurekaClient;
     
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
+    
     public void getEmployee() throws RestClientException, IOException {
         
-        String baseUrlFromEurekaClient = getServiceURLwithEurekaClient();
-        String baseUrlFromSpringDiscoveryClient = getServiceURLwithSpringDiscoveryClient();
-        
-        logger.info("--> Service URL from Eureka Client: {}", baseUrlFromEurekaClient);
-        logger.info("--> Service URL from Spring Client: {}", baseUrlFromSpringDiscoveryClient);
+        boolean logCall = logSampler.sample();
+        ResponseEntity<String> response;
+        CallTiming timing = callTimings.begin("dc", "employee-service");
+        try {
+            response = callEmployeeService(logCall);
+        } finally {
+            callTimings.end(timing);
+        }
+        if (logCall) {
+            logger.info(response.getBody());
+        }
+    }
 
+    private ResponseEntity<String> callEmployeeService(boolean logCall) throws RestClientException, IOException {
+        
+        String baseUrlFromEurekaClient = getServiceURLwithEurekaClient(logCall);
+        String baseUrlFromSpringDiscoveryClient = getServiceURLwithSpringDiscoveryClient(logCall);
+        
         String baseUrl = baseUrlFromSpringDiscoveryClient;
         baseUrl = baseUrl + "/employee";
 
-        logger.info("Employee Service Instance Address: {}", baseUrl);
+        if (logCall) {
+            logger.info("--> Service URL from Eureka Client: {}", baseUrlFromEurekaClient);
+            logger.info("--> Service URL from Spring Client: {}", baseUrlFromSpringDiscoveryClient);
+            logger.info("Employee Service Instance Address: {}", baseUrl);
+        }
         
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = new RestTemplate(callTimings.requestFactory(new SimpleClientHttpRequestFactory()));
         
         ResponseEntity<String> response = null;
         try {
@@ -53,7 +79,7 @@ public class DCEmployeeServiceClient {
         } catch (Exception ex) {
             logger.error("Caught exception during RestTemplate call. ", ex);
         }
-        logger.info(response.getBody());
+        return response;
     }
 
     private static HttpEntity<?> getHeaders() throws IOException {
@@ -62,17 +88,19 @@ public class DCEmployeeServiceClient {
         return new HttpEntity<>(headers);
     }
     
-private String getServiceURLwithSpringDiscoveryClient() {
+private String getServiceURLwithSpringDiscoveryClient(boolean logCall) {
         
         List<ServiceInstance> instances = discoveryClient.getInstances("employee-service");
         
-        dumpServiceInstancesInformationFromSpringDiscoveryClient(instances);
+        if (logCall) {
+            dumpServiceInstancesInformationFromSpringDiscoveryClient(instances);
+        }
         
         ServiceInstance serviceInstance = instances.get(0);
         return serviceInstance.getUri().toString();
     }
 
-    private void dumpServiceInstancesInformationFromSpringDiscoveryClient(List<ServiceInstance> instances) {
+    static void dumpServiceInstancesInformationFromSpringDiscoveryClient(List<ServiceInstance> instances) {
         
         logger.info("--- Service Instances Information from Spring Discovery Client ---");
         for (ServiceInstance instance : instances) {
@@ -90,23 +118,24 @@ private String getServiceURLwithSpringDiscoveryClient() {
         }
     }
 
-    private String getServiceURLwithEurekaClient() throws JsonProcessingException {
+    private String getServiceURLwithEurekaClient(boolean logCall) throws JsonProcessingException {
 
         List<InstanceInfo> serviceInstances = eurekaClient.getInstancesByVipAddress("employee-service", false);
 
-        dumpServiceInstancesInformationFromEurekaClient(serviceInstances);
+        if (logCall) {
+            dumpServiceInstancesInformationFromEurekaClient(serviceInstances);
+        }
 
         InstanceInfo instanceInfo = serviceInstances.get(0);
         return instanceInfo.getHomePageUrl();
     }
 
-    private void dumpServiceInstancesInformationFromEurekaClient(List<InstanceInfo> serviceInstances) throws JsonProcessingException {
+    static void dumpServiceInstancesInformationFromEurekaClient(List<InstanceInfo> serviceInstances) throws JsonProcessingException {
         
         logger.info("---------- Service Instances Information from Eureka Client ----------");
         for (InstanceInfo instanceInfo : serviceInstances) {
             logger.info("------------------ Service Instance -------------------");
-            ObjectMapper mapper = new ObjectMapper();
-            String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(instanceInfo);
+            String json = instanceInfoWriter.writeValueAsString(instanceInfo);
             logger.info("-- InstanceInfo: (You can get all of this with getters!)" );
             logger.info(json);
             logger.info("");
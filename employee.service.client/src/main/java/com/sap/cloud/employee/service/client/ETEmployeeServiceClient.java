@@ -25,11 +25,24 @@ public class ETEmployeeServiceClient {
     
     @Autowired
     private RestTemplate restTemplate;
+
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
     
     public void getEmployee() throws RestClientException, IOException {
-        Employee employee = restTemplate.getForObject("http://employee-service/employee", Employee.class);
+        Employee employee;
+        CallTiming timing = callTimings.begin("et", "employee-service");
+        try {
+            employee = restTemplate.getForObject("http://employee-service/employee", Employee.class);
+        } finally {
+            callTimings.end(timing);
+        }
         
-        logger.info("Employee from RestTemplate: ");
-        logger.info(employee.toString());
+        if (logSampler.sample()) {
+            logger.info("Employee from RestTemplate: {}", employee);
+        }
     }
 }
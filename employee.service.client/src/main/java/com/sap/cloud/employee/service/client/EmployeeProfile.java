@@ -0,0 +1,54 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An employee joined with the employee's address, as returned by {@link EmployeeProfileEndpoint}.
+ *
+ * If a dependency failed or did not answer in time, its part is null, 'partial'
+ * is set and 'errors' tells why, keyed by the service name.
+ */
+public class EmployeeProfile {
+    private Employee employee;
+    private Address address;
+    private boolean partial;
+    private Map<String, String> errors = new LinkedHashMap<>();
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public void setEmployee(Employee employee) {
+        this.employee = employee;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public void setAddress(Address address) {
+        this.address = address;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeProfile [employee=" + employee + ", address=" + address + ", partial=" + partial + ", errors=" + errors + "]";
+    }
+}
@@ -0,0 +1,212 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.cloud.client.loadbalancer.RetryLoadBalancerInterceptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Scatter-gather endpoint joining an employee with the employee's address.
+ *
+ * Instead of calling the employee-service and then the address-service, both are
+ * called at the same time (looked up through Eureka and load balanced by Ribbon),
+ * so the latency is that of the slower call rather than the sum of both. Each
+ * dependency has its own timeout ('profile.employee-timeout-ms',
+ * 'profile.address-timeout-ms'), enforced both as HTTP read timeout and as upper
+ * bound for waiting. A dependency that fails or is too slow is left out and
+ * reported in the response's 'errors' ('partial' result); only if the employee
+ * does not exist, or both dependencies fail, the request fails. An employee without
+ * an address (404 from the address-service) is a complete profile with no address.
+ *
+ * The address-service keys addresses by customer id and knows nothing about
+ * employees. The customer id of an employee's address is derived from the employee
+ * id alone ('profile.address-customer-id', by default the employee id itself, see
+ * {@link #customerId}), so both calls can start right away; a mapping that had to
+ * be looked up in the employee would serialize them again.
+ *
+ * The calls run on a bounded pool ('profile.threads'); when it is saturated, calls
+ * are rejected right away and reported like any other failure. A call that times
+ * out is cancelled and its thread interrupted, which ends its retries. Like the
+ * shared @LoadBalanced RestTemplate, calls are retried at another instance on 503
+ * (see 'ribbon.retryableStatusCodes'), within the dependency's timeout, unless
+ * retries are disabled ('spring.cloud.loadbalancer.retry.enabled').
+ */
+@RestController
+public class EmployeeProfileEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeProfileEndpoint.class);
+
+    private static final String EMPLOYEE_SERVICE = "employee-service";
+    private static final String ADDRESS_SERVICE = "address-service";
+    private static final String NOT_FOUND = "not found";
+
+    // the interceptor of the @LoadBalanced RestTemplate: Ribbon with spring-retry, if enabled
+    @Autowired
+    private ObjectProvider<RetryLoadBalancerInterceptor> retryInterceptor;
+
+    @Autowired
+    private LoadBalancerClient loadBalancerClient;
+
+    @Value("${profile.employee-timeout-ms:500}")
+    private int employeeTimeoutMs;
+
+    @Value("${profile.address-timeout-ms:300}")
+    private int addressTimeoutMs;
+
+    @Value("${profile.threads:32}")
+    private int threads;
+
+    @Value("${profile.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${profile.address-customer-id:{id}}")
+    private String addressCustomerId;
+
+    private RestTemplate employeeService;
+    private RestTemplate addressService;
+    private ThreadPoolExecutor executor;
+
+    public EmployeeProfileEndpoint() {
+    }
+
+    EmployeeProfileEndpoint(RestTemplate employeeService, int employeeTimeoutMs, RestTemplate addressService, int addressTimeoutMs,
+                            String addressCustomerId, int threads) {
+        this.employeeService = employeeService;
+        this.employeeTimeoutMs = employeeTimeoutMs;
+        this.addressService = addressService;
+        this.addressTimeoutMs = addressTimeoutMs;
+        this.addressCustomerId = addressCustomerId;
+        this.threads = threads;
+        this.queueCapacity = threads;
+        startExecutor();
+    }
+
+    @PostConstruct
+    public void start() {
+        ClientHttpRequestInterceptor interceptor = retryInterceptor.getIfAvailable();
+        if (interceptor == null) {
+            interceptor = new LoadBalancerInterceptor(loadBalancerClient);
+        }
+        employeeService = loadBalancedRestTemplate(employeeTimeoutMs, interceptor);
+        addressService = loadBalancedRestTemplate(addressTimeoutMs, interceptor);
+        startExecutor();
+    }
+
+    private void startExecutor() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "profile-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @RequestMapping(value = "/employee-profile/{id}", method = RequestMethod.GET)
+    public EmployeeProfile profile(@PathVariable("id") String id) {
+        long start = System.currentTimeMillis();
+        Future<Employee> employee = call(() ->
+                employeeService.getForObject("http://" + EMPLOYEE_SERVICE + "/employee/{id}", Employee.class, id));
+        Future<Address> address = call(() ->
+                addressService.getForObject("http://" + ADDRESS_SERVICE + "/address/{customerId}", Address.class, customerId(id)));
+
+        EmployeeProfile profile = new EmployeeProfile();
+        profile.setEmployee(await(EMPLOYEE_SERVICE, employee, start + employeeTimeoutMs, profile));
+        profile.setAddress(await(ADDRESS_SERVICE, address, start + addressTimeoutMs, profile));
+        if (NOT_FOUND.equals(profile.getErrors().get(ADDRESS_SERVICE))) {
+            // no address stored for the employee: nothing is missing from the profile
+            profile.getErrors().remove(ADDRESS_SERVICE);
+        }
+        profile.setPartial(!profile.getErrors().isEmpty());
+
+        if (NOT_FOUND.equals(profile.getErrors().get(EMPLOYEE_SERVICE))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No employee with id " + id);
+        }
+        if (profile.getEmployee() == null && profile.getAddress() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "No dependency answered: " + profile.getErrors());
+        }
+        if (profile.isPartial()) {
+            logger.debug("Partial profile for {} after {} ms: {}", id, System.currentTimeMillis() - start, profile.getErrors());
+        }
+        return profile;
+    }
+
+    /**
+     * The customer id of an employee's address at the address-service: 'profile.address-customer-id'
+     * with '{id}' replaced by the employee id.
+     */
+    String customerId(String employeeId) {
+        return addressCustomerId.replace("{id}", employeeId);
+    }
+
+    private <T> Future<T> call(Callable<T> request) {
+        try {
+            return executor.submit(request);
+        } catch (RejectedExecutionException ex) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new IllegalStateException("too many concurrent calls"));
+            return rejected;
+        }
+    }
+
+    private static <T> T await(String service, Future<T> call, long deadline, EmployeeProfile profile) {
+        try {
+            return call.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            call.cancel(true);
+            profile.getErrors().put(service, "timed out");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            profile.getErrors().put(service, cause instanceof HttpClientErrorException.NotFound ? NOT_FOUND : cause.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            profile.getErrors().put(service, "interrupted");
+        }
+        return null;
+    }
+
+    /**
+     * A RestTemplate resolving service names through Ribbon and retrying like the shared
+     * @LoadBalanced RestTemplate of {@link ClientApp}, but with its own timeouts.
+     */
+    private static RestTemplate loadBalancedRestTemplate(int timeoutMs, ClientHttpRequestInterceptor loadBalancerInterceptor) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(Collections.singletonList(loadBalancerInterceptor));
+        return restTemplate;
+    }
+}
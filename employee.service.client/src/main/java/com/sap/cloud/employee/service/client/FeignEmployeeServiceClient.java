@@ -26,11 +26,24 @@ public class FeignEmployeeServiceClient {
     @Autowired
     private EmployeeServiceProxy employeeServiceProxy;
 
+    @Autowired
+    private CallTimings callTimings;
+
+    @Autowired
+    private LogSampler logSampler;
+
     public void getEmployee() {
-        Employee employee = employeeServiceProxy.loadEmployee();
+        Employee employee;
+        CallTiming timing = callTimings.begin("feign", "employee-service");
+        try {
+            employee = employeeServiceProxy.loadEmployee();
+        } finally {
+            callTimings.end(timing);
+        }
         
-        logger.info("Employee from FeignClient: ");
-        logger.info(employee.toString());
+        if (logSampler.sample()) {
+            logger.info("Employee from FeignClient: {}", employee);
+        }
     }
 }
 
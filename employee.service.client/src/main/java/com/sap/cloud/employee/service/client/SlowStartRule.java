@@ -0,0 +1,92 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+
+/**
+ * Ribbon rule that applies slow-start weighting to newly registered instances.
+ *
+ * The weight of an instance grows linearly from {@code minWeight} to 1 over
+ * {@code windowMs}, measured from the time Eureka saw the instance go UP
+ * ({@link LeaseInfo#getServiceUpTimestamp()}). A freshly scaled-out instance
+ * therefore only receives a small share of requests and ramps up to its full
+ * share as it warms up. Instances that are older than the window (or that do not
+ * carry Eureka lease information) are picked with weight 1.
+ *
+ * Used by the Feign and the load balanced RestTemplate clients, see
+ * {@link SlowStartRibbonConfiguration}.
+ */
+public class SlowStartRule extends AbstractLoadBalancerRule {
+
+    private final long windowMs;
+    private final double minWeight;
+
+    public SlowStartRule(long windowMs, double minWeight) {
+        this.windowMs = windowMs;
+        this.minWeight = minWeight;
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        // configured through the constructor
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer loadBalancer = getLoadBalancer();
+        if (loadBalancer == null) {
+            return null;
+        }
+        List<Server> servers = loadBalancer.getReachableServers();
+        if (servers.isEmpty()) {
+            return null;
+        }
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        long now = System.currentTimeMillis();
+        double[] cumulativeWeights = new double[servers.size()];
+        double total = 0;
+        for (int i = 0; i < servers.size(); i++) {
+            total += weight(servers.get(i), now);
+            cumulativeWeights[i] = total;
+        }
+
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return servers.get(i);
+            }
+        }
+        return servers.get(servers.size() - 1);
+    }
+
+    double weight(Server server, long now) {
+        if (windowMs <= 0 || !(server instanceof DiscoveryEnabledServer)) {
+            return 1.0;
+        }
+        InstanceInfo instanceInfo = ((DiscoveryEnabledServer) server).getInstanceInfo();
+        LeaseInfo leaseInfo = instanceInfo.getLeaseInfo();
+        if (leaseInfo == null) {
+            return 1.0;
+        }
+        long upSince = leaseInfo.getServiceUpTimestamp() > 0 ? leaseInfo.getServiceUpTimestamp() : leaseInfo.getRegistrationTimestamp();
+        if (upSince <= 0) {
+            return 1.0;
+        }
+        long age = now - upSince;
+        if (age >= windowMs) {
+            return 1.0;
+        }
+        return Math.max(minWeight, (double) Math.max(age, 0) / windowMs);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Asynchronous appender that drops only events below WARN, and counts them.
+ *
+ * Logback's AsyncAppender either blocks for every event when its queue is full or
+ * drops any of them silently ('neverBlock'). Here, an event below WARN is dropped
+ * when the queue is full, so that the calls do not wait for the log output. WARN
+ * and ERROR events wait for room in the queue (configure 'neverBlock' false), so
+ * they are never lost and stay in order with the other events. Drops are published
+ * as 'logging.async.dropped' (see {@link ClientApp}).
+ */
+public class WarnBlockingAsyncAppender extends AsyncAppender {
+
+    private static final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!event.getLevel().isGreaterOrEqual(Level.WARN) && getRemainingCapacity() == 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        super.append(event);
+    }
+
+    public static long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,169 @@
+package com.sap.cloud.employee.service.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link EmployeeProfileEndpoint}: complete, partial and failed profiles.
+ */
+public class EmployeeProfileEndpointTest extends TestCase {
+
+    private EmployeeProfileEndpoint endpoint;
+
+    @Override
+    protected void tearDown() {
+        if (endpoint != null) {
+            endpoint.stop();
+        }
+    }
+
+    public void testCompleteProfile() {
+        endpoint = endpoint(id -> employee(id), id -> address("Street of " + id));
+
+        EmployeeProfile profile = endpoint.profile("7");
+        assertEquals("7", profile.getEmployee().getId());
+        assertEquals("Street of 7", profile.getAddress().getStreetName());
+        assertFalse(profile.isPartial());
+        assertTrue(profile.getErrors().isEmpty());
+    }
+
+    public void testMissingAddressIsNotPartial() {
+        endpoint = endpoint(id -> employee(id), id -> {
+            throw notFound();
+        });
+
+        EmployeeProfile profile = endpoint.profile("7");
+        assertEquals("7", profile.getEmployee().getId());
+        assertNull(profile.getAddress());
+        assertFalse(profile.isPartial());
+        assertTrue(profile.getErrors().isEmpty());
+    }
+
+    public void testFailedAddressIsPartial() {
+        endpoint = endpoint(id -> employee(id), id -> {
+            throw new ResourceAccessException("Connection refused");
+        });
+
+        EmployeeProfile profile = endpoint.profile("7");
+        assertEquals("7", profile.getEmployee().getId());
+        assertNull(profile.getAddress());
+        assertTrue(profile.isPartial());
+        assertEquals("Connection refused", profile.getErrors().get("address-service"));
+    }
+
+    public void testSlowAddressTimesOut() {
+        endpoint = endpoint(id -> employee(id), id -> {
+            sleep(2000);
+            return address("too late");
+        });
+
+        long start = System.currentTimeMillis();
+        EmployeeProfile profile = endpoint.profile("7");
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals("7", profile.getEmployee().getId());
+        assertNull(profile.getAddress());
+        assertTrue(profile.isPartial());
+        assertEquals("timed out", profile.getErrors().get("address-service"));
+    }
+
+    public void testTimedOutCallIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        endpoint = endpoint(id -> employee(id), id -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return address("too late");
+        });
+
+        endpoint.profile("7");
+        assertTrue("the call must not keep its thread", interrupted.await(500, TimeUnit.MILLISECONDS));
+    }
+
+    public void testAddressCustomerIdIsConfigurable() {
+        endpoint = new EmployeeProfileEndpoint(service(id -> employee(id)), 200, service(id -> address("Street of " + id)), 100,
+                "employee-{id}", 4);
+
+        assertEquals("Street of employee-7", endpoint.profile("7").getAddress().getStreetName());
+    }
+
+    public void testMissingEmployeeIsNotFound() {
+        endpoint = endpoint(id -> {
+            throw notFound();
+        }, id -> address("Street of " + id));
+
+        try {
+            endpoint.profile("7");
+            fail("expected ResponseStatusException");
+        } catch (ResponseStatusException expected) {
+            assertEquals(HttpStatus.NOT_FOUND, expected.getStatus());
+        }
+    }
+
+    public void testBothFailedIsBadGateway() {
+        endpoint = endpoint(id -> {
+            sleep(2000);
+            return employee(id);
+        }, id -> {
+            throw new ResourceAccessException("Connection refused");
+        });
+
+        try {
+            endpoint.profile("7");
+            fail("expected ResponseStatusException");
+        } catch (ResponseStatusException expected) {
+            assertEquals(HttpStatus.BAD_GATEWAY, expected.getStatus());
+        }
+    }
+
+    private static EmployeeProfileEndpoint endpoint(Function<String, Employee> employeeService, Function<String, Address> addressService) {
+        return new EmployeeProfileEndpoint(service(employeeService), 200, service(addressService), 100, "{id}", 4);
+    }
+
+    /**
+     * A RestTemplate answering every GET for a single-id URL with {@code response}.
+     */
+    private static RestTemplate service(Function<String, ?> response) {
+        return new RestTemplate() {
+            @Override
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                return responseType.cast(response.apply((String) uriVariables[0]));
+            }
+        };
+    }
+
+    private static Employee employee(String id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        return employee;
+    }
+
+    private static Address address(String streetName) {
+        Address address = new Address();
+        address.setStreetName(streetName);
+        return address;
+    }
+
+    private static HttpClientErrorException notFound() {
+        return HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
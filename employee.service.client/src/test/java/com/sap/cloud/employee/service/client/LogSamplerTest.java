@@ -0,0 +1,25 @@
+package com.sap.cloud.employee.service.client;
+
+import junit.framework.TestCase;
+
+public class LogSamplerTest extends TestCase {
+
+    public void testLogsFirstCallsPerSecond() {
+        LogSampler sampler = new LogSampler(3);
+
+        assertTrue(sampler.sample());
+        assertTrue(sampler.sample());
+        assertTrue(sampler.sample());
+        assertFalse(sampler.sample());
+        assertFalse(sampler.sample());
+    }
+
+    public void testOffAndUnlimited() {
+        LogSampler off = new LogSampler(0);
+        LogSampler all = new LogSampler(-1);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(off.sample());
+            assertTrue(all.sample());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.sap.cloud.employee.service;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.DiscoveryClient;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.TimedSupervisorTask;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * Adaptive lease renewal: stable, long-lived instances heartbeat less often.
+ *
+ * While the instance is UP without interruption, its renewal interval doubles
+ * every 'adaptive-renewal.stable-after-secs', up to 'adaptive-renewal.max-interval-secs'.
+ * The lease expiration duration grows with it ('adaptive-renewal.expiration-factor' times
+ * the interval). Any status other than UP resets the interval to the configured base
+ * interval. The steps are taken by a {@link LeaseRenewalSchedule}, which orders them
+ * so that the lease never lapses.
+ *
+ * The new lease settings are put into the instance config, from where the Eureka
+ * client registers them on its next instance info replication, and the Eureka
+ * client's heartbeat task is re-timed to the new interval. The client offers no API
+ * for the latter: it schedules the task once, with the interval it was started
+ * with. If the task cannot be re-timed (other Eureka client version), the interval
+ * stays at the base interval.
+ *
+ * This filter (installed in {@link App}) passes all requests on and notes the
+ * successful renewals.
+ */
+@Component
+public class AdaptiveLeaseRenewal extends ClientFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLeaseRenewal.class);
+
+    @Autowired
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Autowired
+    private EurekaInstanceConfigBean instanceConfig;
+
+    // resolved lazily: the Eureka client is created with this filter
+    @Autowired
+    private ObjectProvider<EurekaClient> eurekaClient;
+
+    @Value("${adaptive-renewal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${adaptive-renewal.max-interval-secs:120}")
+    private int maxIntervalSecs;
+
+    @Value("${adaptive-renewal.stable-after-secs:300}")
+    private int stableAfterSecs;
+
+    @Value("${adaptive-renewal.expiration-factor:3}")
+    private int expirationFactor;
+
+    private LeaseRenewalSchedule schedule;
+    private IntPredicate heartbeat = this::retimeHeartbeat;
+    private LongSupplier clock = System::currentTimeMillis;
+    private volatile long stableSince;
+    private volatile long lastRenewal;
+    private volatile long intervalChangedAt;
+    private ScheduledExecutorService adjuster;
+
+    public AdaptiveLeaseRenewal() {
+    }
+
+    /**
+     * For tests: {@code heartbeat} re-times the heartbeat, {@code clock} tells the time.
+     */
+    AdaptiveLeaseRenewal(ApplicationInfoManager applicationInfoManager, EurekaInstanceConfigBean instanceConfig,
+                         LeaseRenewalSchedule schedule, IntPredicate heartbeat, LongSupplier clock) {
+        this.applicationInfoManager = applicationInfoManager;
+        this.instanceConfig = instanceConfig;
+        this.enabled = true;
+        this.schedule = schedule;
+        this.heartbeat = heartbeat;
+        this.clock = clock;
+        this.stableSince = clock.getAsLong();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        int baseIntervalSecs = instanceConfig.getLeaseRenewalIntervalInSeconds();
+        schedule = new LeaseRenewalSchedule(baseIntervalSecs, instanceConfig.getLeaseExpirationDurationInSeconds(),
+                maxIntervalSecs, stableAfterSecs, expirationFactor);
+        stableSince = clock.getAsLong();
+        adjuster = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        adjuster.scheduleWithFixedDelay(this::adjust, baseIntervalSecs, baseIntervalSecs, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (adjuster != null) {
+            adjuster.shutdownNow();
+        }
+    }
+
+    void adjust() {
+        long now = clock.getAsLong();
+        InstanceInfo info = applicationInfoManager.getInfo();
+        if (info.getStatus() != InstanceStatus.UP) {
+            stableSince = now;
+        }
+
+        int previousIntervalSecs = schedule.getIntervalSecs();
+        if (!schedule.adjust(now - stableSince, !info.isDirty(), lastRenewal > intervalChangedAt)) {
+            return;
+        }
+        int intervalSecs = schedule.getIntervalSecs();
+        if (intervalSecs != previousIntervalSecs) {
+            if (!heartbeat.test(intervalSecs)) {
+                logger.warn("Cannot change the Eureka client's heartbeat interval, adaptive lease renewal stopped.");
+                stop();
+                return;
+            }
+            instanceConfig.setLeaseRenewalIntervalInSeconds(intervalSecs);
+            intervalChangedAt = now;
+        }
+        instanceConfig.setLeaseExpirationDurationInSeconds(schedule.getDurationSecs());
+        applicationInfoManager.refreshLeaseInfoIfRequired();
+        logger.info("Lease renewal interval {} s, lease duration {} s", intervalSecs, schedule.getDurationSecs());
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        ClientResponse response = getNext().handle(request);
+        if (isRenewal(request) && response.getStatus() == ClientResponse.Status.OK.getStatusCode()) {
+            lastRenewal = clock.getAsLong();
+        }
+        return response;
+    }
+
+    private boolean isRenewal(ClientRequest request) {
+        InstanceInfo info = applicationInfoManager.getInfo();
+        return "PUT".equals(request.getMethod())
+                && request.getURI().getPath().endsWith("/apps/" + info.getAppName() + "/" + info.getId());
+    }
+
+    /**
+     * Sets the period of the Eureka client's heartbeat task (a {@link TimedSupervisorTask}, which
+     * reschedules itself after each run), much like Spring Cloud's CloudEurekaClient reaches into
+     * the client's transport. The change applies from the task's next run on.
+     *
+     * @return false if the task is not where it is expected
+     */
+    private boolean retimeHeartbeat(int intervalSecs) {
+        try {
+            Object client = eurekaClient.getIfAvailable();
+            if (client instanceof Advised) {
+                client = ((Advised) client).getTargetSource().getTarget(); // refresh-scoped
+            }
+            Field taskField = ReflectionUtils.findField(DiscoveryClient.class, "heartbeatTask");
+            Field timeoutField = ReflectionUtils.findField(TimedSupervisorTask.class, "timeoutMillis");
+            Field maxDelayField = ReflectionUtils.findField(TimedSupervisorTask.class, "maxDelay");
+            Field delayField = ReflectionUtils.findField(TimedSupervisorTask.class, "delay");
+            if (!(client instanceof DiscoveryClient) || taskField == null || timeoutField == null || maxDelayField == null || delayField == null) {
+                return false;
+            }
+            ReflectionUtils.makeAccessible(taskField);
+            Object task = taskField.get(client);
+            if (task == null) {
+                return false;
+            }
+            ReflectionUtils.makeAccessible(timeoutField);
+            ReflectionUtils.makeAccessible(maxDelayField);
+            ReflectionUtils.makeAccessible(delayField);
+            long timeoutMs = intervalSecs * 1000L;
+            long backOffBound = maxDelayField.getLong(task) / timeoutField.getLong(task);
+            timeoutField.setLong(task, timeoutMs);
+            maxDelayField.setLong(task, timeoutMs * backOffBound);
+            ((AtomicLong) delayField.get(task)).set(timeoutMs);
+            return true;
+        } catch (Exception ex) {
+            logger.warn("Failed to re-time the Eureka client's heartbeat: {}", ex.toString());
+            return false;
+        }
+    }
+}
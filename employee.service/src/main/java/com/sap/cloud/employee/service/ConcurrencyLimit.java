@@ -0,0 +1,135 @@
+package com.sap.cloud.employee.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit for the number of requests in flight, derived from measured latency
+ * (gradient algorithm, as in Netflix' concurrency-limits 'Gradient2Limit').
+ *
+ * Latencies are collected per window of 'window-ms'. At the end of each window
+ * the window's average latency (short-term RTT) is compared with an exponential
+ * average of the window averages over about 'baseline-windows' windows (long-term RTT):
+ * <pre>
+ *   gradient  = clamp(rttTolerance * longRtt / shortRtt, 0.5, 1.0)
+ *   newLimit  = limit * gradient + sqrt(limit)
+ *   limit     = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * As long as latency stays within the tolerance, the gradient is 1 and the limit
+ * grows by sqrt(limit), i.e. it probes for more concurrency. Once requests start
+ * queueing and latency rises faster than the baseline follows, the gradient drops
+ * below 1 and the limit shrinks towards the concurrency the service can sustain.
+ * Both sides are averages over the same mix of requests, so endpoints of different
+ * cost do not count as queueing (a single request's minimum would). When latency
+ * falls far below the baseline, e.g. after an overload, the baseline decays faster.
+ * The limit only grows when at least half of it was actually used in the window,
+ * so an idle service does not drift to the maximum.
+ *
+ * Requests record their latency without locking; the limit is recomputed by the
+ * one request that ends a window, while the others carry on.
+ */
+public class ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double baselineWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowRttSum = new LongAdder();
+    private volatile long windowStart = System.nanoTime();
+
+    // guarded by windowLock
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private double longRtt;
+
+    public ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowMs, double smoothing, double rttTolerance, int baselineWindows) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowMs * 1000000L;
+        this.minWindowSamples = 10;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.baselineWeight = 2.0 / (baselineWindows + 1);
+    }
+
+    /**
+     * @return true if the request may proceed, in which case {@link #release(long)} must be called
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * Releases an acquired slot and records the request's latency.
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        windowSamples.increment();
+        windowRttSum.add(rttNanos);
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || !windowLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowStart >= windowNanos && windowSamples.sum() >= minWindowSamples) {
+                // samples recorded concurrently may land in either window, which the average tolerates
+                long rttSum = windowRttSum.sumThenReset();
+                long samples = windowSamples.sumThenReset();
+                update((double) rttSum / samples);
+                windowStart = now;
+            }
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void update(double shortRtt) {
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) * baselineWeight;
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double currentLimit = limit;
+        int maxUsed = windowMaxInFlight.getAndSet(inFlight.get());
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+        if (newLimit > currentLimit && maxUsed < currentLimit / 2) {
+            return; // not limited by concurrency, nothing learned about a higher limit
+        }
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
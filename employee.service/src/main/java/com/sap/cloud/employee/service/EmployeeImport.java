@@ -0,0 +1,255 @@
+package com.sap.cloud.employee.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming bulk import of employees into the {@link EmployeeStore}.
+ *
+ * The body is read line by line, in the charset of the request (UTF-8 if none is
+ * given), either as CSV with a header line naming the
+ * columns ('name', 'designation', 'salary'; other columns such as 'id' are
+ * ignored) or as NDJSON with one {@link Employee} object per line. Valid records
+ * are collected into batches of 'employee.import.batch-size' and each batch is
+ * stored with a single log write, so memory use is bounded by one batch no matter
+ * how large the upload is. Ids are always assigned by the store.
+ *
+ * Progress is streamed back as NDJSON while the import runs: a 'progress' line
+ * after every batch, a 'rejected' line per invalid row (up to
+ * 'employee.import.max-reported-rejections') and a final 'summary' line. Batches
+ * stored before a failure stay imported; the summary tells how far it got.
+ */
+@Component
+public class EmployeeImport {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImport.class);
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @Autowired
+    private EmployeeStore employeeStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employee.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    public EmployeeImport() {
+    }
+
+    EmployeeImport(EmployeeStore employeeStore, ObjectMapper objectMapper, int batchSize, int maxReportedRejections) {
+        this.employeeStore = employeeStore;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    /**
+     * @param charset of the body, or null for UTF-8
+     */
+    public void run(InputStream body, Charset charset, Format format, OutputStream progress) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset == null ? StandardCharsets.UTF_8 : charset), 64 * 1024);
+        long start = System.currentTimeMillis();
+        List<Employee> batch = new ArrayList<>(batchSize);
+        Map<String, Integer> columns = null;
+        long lineNumber = 0;
+        long imported = 0;
+        long rejected = 0;
+        String error = null;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = header(line);
+                continue;
+            }
+            try {
+                Employee employee = format == Format.CSV ? fromCsv(line, columns) : fromJson(line);
+                validate(employee);
+                batch.add(employee);
+            } catch (IllegalArgumentException ex) {
+                if (rejected++ < maxReportedRejections) {
+                    write(progress, event("rejected", "line", lineNumber, "reason", ex.getMessage()));
+                }
+            }
+
+            if (batch.size() >= batchSize) {
+                try {
+                    imported += store(batch);
+                } catch (RuntimeException ex) {
+                    error = ex.getMessage();
+                    break;
+                }
+                write(progress, event("progress", "lines", lineNumber, "imported", imported, "rejected", rejected));
+                progress.flush();
+            }
+        }
+        if (error == null && !batch.isEmpty()) {
+            try {
+                imported += store(batch);
+            } catch (RuntimeException ex) {
+                error = ex.getMessage();
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        Map<String, Object> summary = event("summary", "lines", lineNumber, "imported", imported, "rejected", rejected,
+                "durationMs", durationMs);
+        if (error != null) {
+            summary.put("error", error);
+            logger.error("Employee import failed after {} lines ({} imported): {}", lineNumber, imported, error);
+        } else {
+            logger.info("Imported {} employees ({} rejected) from {} lines in {} ms", imported, rejected, lineNumber, durationMs);
+        }
+        write(progress, summary);
+        progress.flush();
+    }
+
+    private int store(List<Employee> batch) {
+        int stored = employeeStore.createAll(batch).size();
+        batch.clear();
+        return stored;
+    }
+
+    private Map<String, Integer> header(String line) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<String> names;
+        try {
+            names = splitCsv(line);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid CSV header: " + ex.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must name the columns, at least 'name' (optional: 'designation', 'salary')");
+        }
+        return columns;
+    }
+
+    private static Employee fromCsv(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        Employee employee = new Employee();
+        employee.setName(column(values, columns, "name"));
+        employee.setDesignation(column(values, columns, "designation"));
+        String salary = column(values, columns, "salary");
+        if (salary != null) {
+            try {
+                employee.setSalary(Double.parseDouble(salary));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("salary is not a number: " + salary);
+            }
+        }
+        return employee;
+    }
+
+    private Employee fromJson(String line) {
+        try {
+            Employee employee = objectMapper.readValue(line, Employee.class);
+            if (employee == null) {
+                throw new IllegalArgumentException("empty record"); // the line is 'null'
+            }
+            return employee;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("invalid JSON: " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // cannot happen when reading from a String
+        }
+    }
+
+    private static void validate(Employee employee) {
+        if (employee.getName() == null || employee.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("name is missing");
+        }
+        if (Double.isNaN(employee.getSalary()) || Double.isInfinite(employee.getSalary()) || employee.getSalary() < 0) {
+            throw new IllegalArgumentException("salary must be a non-negative number");
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits a CSV line; fields may be quoted, with "" for a quote inside a quoted field.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static Map<String, Object> event(String type, Object... properties) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        for (int i = 0; i < properties.length; i += 2) {
+            event.put((String) properties[i], properties[i + 1]);
+        }
+        return event;
+    }
+
+    private void write(OutputStream out, Map<String, Object> event) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,149 @@
+package com.sap.cloud.employee.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Record format shared by the write-ahead log segments and the snapshots of the {@link EmployeeStore}.
+ *
+ * Every record is framed as
+ * <pre>
+ *   int    length of the body
+ *   int    CRC32 of the body
+ *   body:  byte   type (PUT or DELETE)
+ *          long   sequence number
+ *          string id, [string name, string designation, double salary]   (PUT only)
+ * </pre>
+ * Strings are written as int length (-1 for null) followed by UTF-8 bytes. A record
+ * whose frame is incomplete or whose checksum does not match marks the end of the
+ * readable log: it is the tail of a write that was torn by a crash and was never
+ * acknowledged to a client.
+ */
+final class EmployeeLog {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+
+    private EmployeeLog() {
+    }
+
+    /**
+     * A decoded record. For DELETE records, {@code employee} only carries the id.
+     */
+    static final class Record {
+        final byte type;
+        final long sequence;
+        final Employee employee;
+
+        Record(byte type, long sequence, Employee employee) {
+            this.type = type;
+            this.sequence = sequence;
+            this.employee = employee;
+        }
+    }
+
+    /**
+     * Callback for {@link #read(Path, Visitor)}.
+     */
+    interface Visitor {
+        void visit(Record record);
+    }
+
+    static void encode(ByteArrayOutputStream buffer, byte type, long sequence, Employee employee) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(type);
+        out.writeLong(sequence);
+        writeString(out, employee.getId());
+        if (type == PUT) {
+            writeString(out, employee.getName());
+            writeString(out, employee.getDesignation());
+            out.writeDouble(employee.getSalary());
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray(), 0, body.size());
+        DataOutputStream frame = new DataOutputStream(buffer);
+        frame.writeInt(body.size());
+        frame.writeInt((int) crc.getValue());
+        body.writeTo(frame);
+        frame.flush();
+    }
+
+    /**
+     * Reads all intact records of a file.
+     *
+     * @return the position after the last intact record
+     */
+    static long read(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= FRAME_HEADER) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > MAX_RECORD || length > buffer.remaining()) {
+                    return start;
+                }
+                byte[] body = new byte[length];
+                buffer.get(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return start;
+                }
+                visitor.visit(decode(ByteBuffer.wrap(body)));
+            }
+            return buffer.position();
+        }
+    }
+
+    private static Record decode(ByteBuffer body) {
+        byte type = body.get();
+        long sequence = body.getLong();
+        Employee employee = new Employee();
+        employee.setId(readString(body));
+        if (type == PUT) {
+            employee.setName(readString(body));
+            employee.setDesignation(readString(body));
+            employee.setSalary(body.getDouble());
+        }
+        return new Record(type, sequence, employee);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
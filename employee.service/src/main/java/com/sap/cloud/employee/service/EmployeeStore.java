@@ -0,0 +1,572 @@
+package com.sap.cloud.employee.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Durable, in-memory employee store backed by a local write-ahead log.
+ *
+ * All writes are handed to a single writer thread. The writer takes whatever
+ * has queued up while the previous fsync was running, appends it to the current
+ * log segment in one write and makes it durable with one fsync (group commit),
+ * so the number of fsyncs does not grow with the number of concurrent writers.
+ * Only then the changes become visible to readers and the callers return.
+ *
+ * Every 'employee.store.snapshot-every' records, or every as many records as
+ * there are employees if that is more, the writer starts a new log segment and a
+ * background thread writes a compacted snapshot of the state up to that point;
+ * segments covered by the snapshot are deleted afterwards. Growing the interval
+ * with the state keeps the snapshot work per record constant, so a large bulk
+ * import does not copy the whole store over and over. On boot
+ * the latest snapshot is loaded and only the segments written after it are
+ * replayed. A torn record at the end of the last segment (a crash in the middle
+ * of a write, never acknowledged) ends the replay and is cut off. Earlier segments
+ * were complete and synced before the next one was started, so a bad record in
+ * one of them is corruption and fails the startup.
+ *
+ * Ids of new employees are the sequence number of the record that created them.
+ *
+ * Directory layout: 'wal-&lt;first sequence&gt;.log' and 'snapshot-&lt;last sequence&gt;.dat'.
+ */
+@Component
+public class EmployeeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeStore.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    @Value("${employee.store.dir:${java.io.tmpdir}/employee-store}")
+    private String dir;
+
+    @Value("${employee.store.fsync:true}")
+    private boolean fsync;
+
+    @Value("${employee.store.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${employee.store.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${employee.store.snapshot-every:100000}")
+    private long snapshotEvery;
+
+    @Value("${employee.store.seed-sample:true}")
+    private boolean seedSample;
+
+    private final ConcurrentSkipListMap<String, Employee> employees = new ConcurrentSkipListMap<>(EmployeeStore::compareIds);
+
+    private Path directory;
+    private BlockingQueue<Batch> queue;
+    private Thread writer;
+    private ExecutorService snapshotter;
+    private volatile boolean running;
+    private volatile IOException failure;
+
+    // owned by the writer thread after open()
+    private FileChannel segment;
+    private long sequence;
+    private long recordsSinceSnapshot;
+
+    public EmployeeStore() {
+    }
+
+    EmployeeStore(Path dir, boolean fsync, int maxBatch, long snapshotEvery) {
+        this.dir = dir.toString();
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+        this.queueCapacity = 10000;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    private enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+
+    /**
+     * A single change requested by a caller.
+     */
+    private static final class Mutation {
+        final Operation operation;
+        final String id;
+        final Employee employee;
+
+        Mutation(Operation operation, String id, Employee employee) {
+            this.operation = operation;
+            this.id = id;
+            this.employee = employee;
+        }
+    }
+
+    /**
+     * The mutations of one caller, committed together.
+     */
+    private static final class Batch {
+        final List<Mutation> mutations;
+        final CompletableFuture<List<Employee>> result = new CompletableFuture<>();
+
+        Batch(List<Mutation> mutations) {
+            this.mutations = mutations;
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        long start = System.currentTimeMillis();
+        recover();
+        openSegment(sequence + 1);
+        logger.info("Recovered {} employees up to sequence {} from {} in {} ms",
+                employees.size(), sequence, directory, System.currentTimeMillis() - start);
+
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        writer = new Thread(this::writeLoop, "employee-wal");
+        writer.setDaemon(true);
+        writer.start();
+
+        if (seedSample && sequence == 0) {
+            Employee sample = new Employee();
+            sample.setName("Carl Barks");
+            sample.setDesignation("Architect");
+            sample.setSalary(3000);
+            create(sample);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join();
+            for (Batch batch; (batch = queue.poll()) != null;) {
+                batch.result.completeExceptionally(new IllegalStateException("Employee store is closed"));
+            }
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    public Employee get(String id) {
+        return copy(employees.get(id));
+    }
+
+    /**
+     * @return the employee with the lowest id, or null if the store is empty
+     */
+    public Employee first() {
+        Map.Entry<String, Employee> first = employees.firstEntry();
+        return first == null ? null : copy(first.getValue());
+    }
+
+    /**
+     * @return all employees, ordered by id
+     */
+    public List<Employee> list() {
+        List<Employee> result = new ArrayList<>();
+        for (Employee employee : employees.values()) {
+            result.add(copy(employee));
+        }
+        return result;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    /**
+     * @return the stored employee, with its newly assigned id
+     */
+    public Employee create(Employee employee) {
+        return commit(Collections.singletonList(new Mutation(Operation.CREATE, null, employee))).get(0);
+    }
+
+    /**
+     * Creates all employees with a single log write.
+     *
+     * @return the stored employees, in the given order
+     */
+    public List<Employee> createAll(List<Employee> newEmployees) {
+        List<Mutation> mutations = new ArrayList<>(newEmployees.size());
+        for (Employee employee : newEmployees) {
+            mutations.add(new Mutation(Operation.CREATE, null, employee));
+        }
+        return commit(mutations);
+    }
+
+    /**
+     * @return the stored employee, or null if there is no employee with this id
+     */
+    public Employee update(String id, Employee employee) {
+        return commit(Collections.singletonList(new Mutation(Operation.UPDATE, id, employee))).get(0);
+    }
+
+    /**
+     * @return the deleted employee, or null if there is no employee with this id
+     */
+    public Employee delete(String id) {
+        return commit(Collections.singletonList(new Mutation(Operation.DELETE, id, null))).get(0);
+    }
+
+    private List<Employee> commit(List<Mutation> mutations) {
+        checkWritable();
+        Batch batch = new Batch(mutations);
+        try {
+            queue.put(batch);
+            if (!running && queue.remove(batch)) {
+                // closed after the check above, the writer may be gone already
+                throw new IllegalStateException("Employee store is closed");
+            }
+            return batch.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the employee log", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) ex.getCause());
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Employee log failed, store is read-only", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Employee store is closed");
+        }
+    }
+
+    private void writeLoop() {
+        List<Batch> batches = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                Batch first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batches.add(first);
+                queue.drainTo(batches, maxBatch - 1);
+                write(batches);
+                batches.clear();
+            }
+            if (failure == null && recordsSinceSnapshot > 0) {
+                snapshot(); // the next boot only needs to load it
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            logger.error("Failed to write final employee snapshot", ex);
+        } finally {
+            for (Batch batch : batches) {
+                batch.result.completeExceptionally(new IllegalStateException("Employee store is closed"));
+            }
+            closeSegment();
+        }
+    }
+
+    /**
+     * Encodes, writes and syncs the batches as one group commit, then applies them.
+     */
+    private void write(List<Batch> batches) {
+        if (failure != null) {
+            for (Batch batch : batches) {
+                batch.result.completeExceptionally(failure);
+            }
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        Map<String, Employee> pending = new HashMap<>(); // null value: deleted
+        List<List<Employee>> results = new ArrayList<>(batches.size());
+        long records = 0;
+        try {
+            for (Batch batch : batches) {
+                List<Employee> result = new ArrayList<>(batch.mutations.size());
+                for (Mutation mutation : batch.mutations) {
+                    Employee current = mutation.id == null ? null
+                            : pending.containsKey(mutation.id) ? pending.get(mutation.id) : employees.get(mutation.id);
+                    Employee next;
+                    switch (mutation.operation) {
+                    case CREATE:
+                        next = copy(mutation.employee);
+                        next.setId(String.valueOf(sequence + 1)); // unique, even across deletes and snapshots
+                        break;
+                    case UPDATE:
+                        if (current == null) {
+                            result.add(null);
+                            continue;
+                        }
+                        next = copy(mutation.employee);
+                        next.setId(mutation.id);
+                        break;
+                    default:
+                        if (current == null) {
+                            result.add(null);
+                            continue;
+                        }
+                        EmployeeLog.encode(buffer, EmployeeLog.DELETE, ++sequence, current);
+                        pending.put(mutation.id, null);
+                        result.add(copy(current));
+                        records++;
+                        continue;
+                    }
+                    EmployeeLog.encode(buffer, EmployeeLog.PUT, ++sequence, next);
+                    pending.put(next.getId(), next);
+                    result.add(copy(next));
+                    records++;
+                }
+                results.add(result);
+            }
+
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                segment.write(bytes);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to write employee log, refusing further writes", ex);
+            failure = ex;
+            for (Batch batch : batches) {
+                batch.result.completeExceptionally(ex);
+            }
+            return;
+        }
+
+        for (Map.Entry<String, Employee> entry : pending.entrySet()) {
+            if (entry.getValue() == null) {
+                employees.remove(entry.getKey());
+            } else {
+                employees.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            batches.get(i).result.complete(results.get(i));
+        }
+
+        recordsSinceSnapshot += records;
+        if (recordsSinceSnapshot >= Math.max(snapshotEvery, employees.size())) {
+            try {
+                snapshot();
+            } catch (IOException ex) {
+                logger.error("Failed to start a new employee log segment, refusing further writes", ex);
+                failure = ex;
+            }
+        }
+    }
+
+    /**
+     * Starts a new segment and writes the current state as snapshot in the background.
+     * Runs on the writer thread, so the state is consistent with the log position.
+     */
+    private void snapshot() throws IOException {
+        long snapshotSequence = sequence;
+        List<Employee> state = new ArrayList<>(employees.values()); // stored instances are never modified
+        openSegment(snapshotSequence + 1);
+        recordsSinceSnapshot = 0;
+        snapshotter.execute(() -> writeSnapshot(snapshotSequence, state));
+    }
+
+    private void writeSnapshot(long snapshotSequence, List<Employee> state) {
+        long start = System.currentTimeMillis();
+        Path file = directory.resolve(fileName(SNAPSHOT_PREFIX, snapshotSequence, SNAPSHOT_SUFFIX));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+                for (Employee employee : state) {
+                    EmployeeLog.encode(buffer, EmployeeLog.PUT, snapshotSequence, employee);
+                    if (buffer.size() >= 64 * 1024) {
+                        writeFully(channel, buffer);
+                    }
+                }
+                writeFully(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(); // before the segments it replaces are deleted
+
+            for (Map.Entry<Long, Path> segment : files(SEGMENT_PREFIX, SEGMENT_SUFFIX).entrySet()) {
+                if (segment.getKey() <= snapshotSequence) {
+                    Files.delete(segment.getValue());
+                }
+            }
+            for (Map.Entry<Long, Path> snapshot : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).entrySet()) {
+                if (snapshot.getKey() < snapshotSequence) {
+                    Files.delete(snapshot.getValue());
+                }
+            }
+            logger.info("Wrote snapshot of {} employees at sequence {} in {} ms",
+                    state.size(), snapshotSequence, System.currentTimeMillis() - start);
+        } catch (IOException ex) {
+            // the log segments are kept, so nothing is lost; the next snapshot tries again
+            logger.error("Failed to write employee snapshot {}", file, ex);
+        }
+    }
+
+    private void recover() throws IOException {
+        long snapshotSequence = 0;
+        TreeMap<Long, Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            Map.Entry<Long, Path> latest = snapshots.lastEntry();
+            long end = EmployeeLog.read(latest.getValue(), record -> employees.put(record.employee.getId(), record.employee));
+            if (end != Files.size(latest.getValue())) {
+                throw new IOException("Employee snapshot " + latest.getValue() + " is corrupt at position " + end);
+            }
+            snapshotSequence = latest.getKey();
+        }
+        sequence = snapshotSequence;
+
+        TreeMap<Long, Path> segments = files(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            boolean last = entry.getKey().equals(segments.lastKey());
+            long replayFrom = sequence;
+            Path file = entry.getValue();
+            long end = EmployeeLog.read(file, record -> {
+                if (record.sequence <= replayFrom) {
+                    return; // already part of the snapshot
+                }
+                if (record.type == EmployeeLog.PUT) {
+                    employees.put(record.employee.getId(), record.employee);
+                } else {
+                    employees.remove(record.employee.getId());
+                }
+                sequence = Math.max(sequence, record.sequence);
+            });
+            long size = Files.size(file);
+            if (end < size && !last) {
+                throw new IOException("Employee log segment " + file + " is corrupt at position " + end
+                        + "; only the last segment may end with a torn record");
+            }
+            if (end < size) {
+                logger.warn("Cutting off {} bytes of torn records at the end of {}", size - end, file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                }
+            }
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        closeSegment();
+        Path file = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        boolean created = !Files.exists(file);
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (created && fsync) {
+            syncDirectory(); // otherwise the synced records could be lost with the directory entry
+        }
+    }
+
+    /**
+     * Makes created, renamed and deleted files durable. Not every platform can open
+     * a directory (Windows cannot); there this is left to the file system.
+     */
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException ex) {
+            return;
+        }
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close employee log segment", ex);
+            }
+            segment = null;
+        }
+    }
+
+    private TreeMap<Long, Path> files(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+            }
+        }
+        return files;
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    private static void writeFully(FileChannel channel, ByteArrayOutputStream buffer) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        buffer.reset();
+    }
+
+    private static int compareIds(String a, String b) {
+        int result = Integer.compare(a.length(), b.length()); // numeric order for the generated ids
+        return result != 0 ? result : a.compareTo(b);
+    }
+
+    private static Employee copy(Employee employee) {
+        if (employee == null) {
+            return null;
+        }
+        Employee copy = new Employee();
+        copy.setId(employee.getId());
+        copy.setName(employee.getName());
+        copy.setDesignation(employee.getDesignation());
+        copy.setSalary(employee.getSalary());
+        return copy;
+    }
+}
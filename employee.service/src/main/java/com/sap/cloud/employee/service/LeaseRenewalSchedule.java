@@ -0,0 +1,91 @@
+package com.sap.cloud.employee.service;
+
+/**
+ * Renewal interval and lease duration of an instance, depending on how long it has
+ * been UP without interruption.
+ *
+ * Holds the decisions of {@link AdaptiveLeaseRenewal} without any dependency on the
+ * Eureka client, so that the fleet.simulator runs the same logic for its virtual
+ * instances. The interval doubles after every {@code stableAfterSecs} up to
+ * {@code maxIntervalSecs}; the lease duration is {@code expirationFactor} times the
+ * interval, but at least the base duration.
+ *
+ * Interval and duration never change together, in an order that keeps the lease
+ * from lapsing: a longer interval is only used once the server has the longer
+ * duration, and a shorter duration only once a renewal at the shorter interval has
+ * happened. A schedule is not thread-safe.
+ */
+public class LeaseRenewalSchedule {
+
+    private final int baseIntervalSecs;
+    private final int baseDurationSecs;
+    private final int maxIntervalSecs;
+    private final int stableAfterSecs;
+    private final int expirationFactor;
+
+    private int intervalSecs;
+    private int durationSecs;
+
+    public LeaseRenewalSchedule(int baseIntervalSecs, int baseDurationSecs, int maxIntervalSecs, int stableAfterSecs, int expirationFactor) {
+        this.baseIntervalSecs = baseIntervalSecs;
+        this.baseDurationSecs = baseDurationSecs;
+        this.maxIntervalSecs = maxIntervalSecs;
+        this.stableAfterSecs = stableAfterSecs;
+        this.expirationFactor = expirationFactor;
+        this.intervalSecs = baseIntervalSecs;
+        this.durationSecs = baseDurationSecs;
+    }
+
+    /**
+     * A schedule that always renews at the base interval, like a standard Eureka client.
+     */
+    public static LeaseRenewalSchedule fixed(int intervalSecs, int durationSecs) {
+        return new LeaseRenewalSchedule(intervalSecs, durationSecs, intervalSecs, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Takes one step towards the interval for an instance that has been UP for {@code stableForMs}.
+     *
+     * @param durationRegistered whether the server has the current lease duration
+     * @param renewedSinceIntervalChange whether a renewal has happened since the interval last changed
+     * @return true if the interval or the lease duration changed
+     */
+    public boolean adjust(long stableForMs, boolean durationRegistered, boolean renewedSinceIntervalChange) {
+        int targetIntervalSecs = targetIntervalSecs(stableForMs);
+        int targetDurationSecs = Math.max(baseDurationSecs, targetIntervalSecs * expirationFactor);
+        if (targetIntervalSecs < intervalSecs) {
+            intervalSecs = targetIntervalSecs; // renewing more often is always safe
+            return true;
+        }
+        if (durationSecs < targetDurationSecs) {
+            durationSecs = targetDurationSecs; // first the longer lease ...
+            return true;
+        }
+        if (targetIntervalSecs > intervalSecs && durationRegistered) {
+            intervalSecs = targetIntervalSecs; // ... then the longer interval
+            return true;
+        }
+        if (durationSecs > targetDurationSecs && renewedSinceIntervalChange) {
+            durationSecs = targetDurationSecs;
+            return true;
+        }
+        return false;
+    }
+
+    int targetIntervalSecs(long stableForMs) {
+        int interval = baseIntervalSecs;
+        long steps = stableForMs / (stableAfterSecs * 1000L);
+        for (int i = 0; i < steps && interval < maxIntervalSecs; i++) {
+            interval *= 2;
+        }
+        return Math.min(interval, maxIntervalSecs);
+    }
+
+    public int getIntervalSecs() {
+        return intervalSecs;
+    }
+
+    public int getDurationSecs() {
+        return durationSecs;
+    }
+}
@@ -1,23 +1,96 @@
 package com.sap.cloud.employee.service;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 
 @RestController
 public class RESTEndpoint {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private EmployeeStore employeeStore;
+
+    @Autowired
+    private EmployeeImport employeeImport;
+
+    /**
+     * The first employee, as before the store existed (the store seeds a sample employee).
+     */
     @RequestMapping(value = "/employee", method = RequestMethod.GET)
     public Employee firstPage() {
+        Employee first = employeeStore.first();
+        if (first == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No employees");
+        }
+        return first;
+    }
+
+    @RequestMapping(value = "/employees", method = RequestMethod.GET)
+    public List<Employee> list() {
+        return employeeStore.list();
+    }
 
-        Employee emp = new Employee();
-        emp.setName("Carl Barks");
-        emp.setDesignation("Architect");
-        emp.setId("1");
-        emp.setSalary(3000);
+    @RequestMapping(value = "/employee/{id}", method = RequestMethod.GET)
+    public Employee get(@PathVariable("id") String id) {
+        return found(id, employeeStore.get(id));
+    }
+
+    @RequestMapping(value = "/employee", method = RequestMethod.POST)
+    public ResponseEntity<Employee> create(@RequestBody Employee employee) {
+        Employee created = employeeStore.create(employee);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(created.getId()).toUri();
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @RequestMapping(value = "/employee/{id}", method = RequestMethod.PUT)
+    public Employee update(@PathVariable("id") String id, @RequestBody Employee employee) {
+        return found(id, employeeStore.update(id, employee));
+    }
+
+    @RequestMapping(value = "/employee/{id}", method = RequestMethod.DELETE)
+    public ResponseEntity<Void> delete(@PathVariable("id") String id) {
+        found(id, employeeStore.delete(id));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Bulk import from a streamed CSV or NDJSON body, see {@link EmployeeImport}.
+     * Progress is streamed back as NDJSON while the body is still being read.
+     */
+    @RequestMapping(value = "/employees/import", method = RequestMethod.POST,
+            consumes = { TEXT_CSV, APPLICATION_NDJSON }, produces = APPLICATION_NDJSON)
+    public void importEmployees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        EmployeeImport.Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? EmployeeImport.Format.CSV : EmployeeImport.Format.NDJSON;
+        response.setContentType(APPLICATION_NDJSON);
+        employeeImport.run(request.getInputStream(), contentType.getCharset(), format, response.getOutputStream());
+    }
 
-        return emp;
+    private static Employee found(String id, Employee employee) {
+        if (employee == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No employee with id " + id);
+        }
+        return employee;
     }
 
 }
@@ -0,0 +1,79 @@
+package com.sap.cloud.employee.service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * Phase timestamps of one request, rendered as 'Server-Timing' response header:
+ * <pre>
+ *   Server-Timing: dispatch;dur=0.21, handler;dur=1.73, serialization;dur=0.32, total;dur=2.26
+ * </pre>
+ * 'dispatch' is the time from Tomcat starting to read the request (see
+ * {@link ServerTimingValve}, millisecond resolution) until the handler method is
+ * invoked: parsing, the filters, a shed request, dispatching. 'handler' is the
+ * time until the handler returned its body (including reading the request body);
+ * 'serialization' the time to render the body. Durations are in milliseconds.
+ * Waiting for Tomcat before it reads the request (accept backlog, a busy worker
+ * pool) cannot be seen by the server; clients see it in their 'network' time.
+ */
+public class ServerTiming {
+
+    static final String HEADER = "Server-Timing";
+
+    private static final String ATTRIBUTE = ServerTiming.class.getName();
+    private static final String RECEIVED_ATTRIBUTE = ServerTiming.class.getName() + ".received";
+
+    private final long start;
+    private long handlerStart;
+    private long serializationStart;
+
+    ServerTiming(long start) {
+        this.start = start;
+    }
+
+    /**
+     * Records when the connector started to read the request ('System.currentTimeMillis()' based).
+     */
+    static void received(ServletRequest request, long startTimeMillis) {
+        long sinceStart = startTimeMillis > 0 ? Math.max(0, System.currentTimeMillis() - startTimeMillis) : 0;
+        request.setAttribute(RECEIVED_ATTRIBUTE, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sinceStart));
+    }
+
+    static ServerTiming start(ServletRequest request) {
+        Object received = request.getAttribute(RECEIVED_ATTRIBUTE);
+        ServerTiming timing = new ServerTiming(received instanceof Long ? (Long) received : System.nanoTime());
+        request.setAttribute(ATTRIBUTE, timing);
+        return timing;
+    }
+
+    static void handlerStarted(ServletRequest request) {
+        ServerTiming timing = (ServerTiming) request.getAttribute(ATTRIBUTE);
+        if (timing != null && timing.handlerStart == 0) {
+            timing.handlerStart = System.nanoTime();
+        }
+    }
+
+    static void serializationStarted(ServletRequest request) {
+        ServerTiming timing = (ServerTiming) request.getAttribute(ATTRIBUTE);
+        if (timing != null && timing.serializationStart == 0) {
+            timing.serializationStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * The header value for a request ending at 'end'; phases that were not reached count as zero.
+     */
+    String header(long end) {
+        long handlerStart = this.handlerStart != 0 ? this.handlerStart : end;
+        long serializationStart = this.serializationStart != 0 ? this.serializationStart : end;
+        return String.format(Locale.ROOT, "dispatch;dur=%.2f, handler;dur=%.2f, serialization;dur=%.2f, total;dur=%.2f",
+                millis(handlerStart - start), millis(serializationStart - handlerStart), millis(end - serializationStart),
+                millis(end - start));
+    }
+
+    private static double millis(long nanos) {
+        return Math.max(0, nanos) / 1e6;
+    }
+}
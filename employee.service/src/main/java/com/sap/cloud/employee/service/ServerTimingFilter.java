@@ -0,0 +1,55 @@
+package com.sap.cloud.employee.service;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Adds the {@link ServerTiming} header to responses.
+ *
+ * Headers have to be sent before the body, but serialization is only over once the
+ * body is written. The response body is therefore buffered (like the ETag filter
+ * does) and copied out after the header has been set. Streaming, long-running and
+ * large responses (unpaginated lists) are not worth the buffering and are listed
+ * in 'server-timing.exclude-paths'.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final String[] excludedPaths;
+
+    public ServerTimingFilter(String[] excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (!excluded.isEmpty() && path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.start(request);
+        ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, bufferedResponse);
+        } finally {
+            if (!response.isCommitted()) {
+                response.setHeader(ServerTiming.HEADER, timing.header(System.nanoTime()));
+            }
+            bufferedResponse.copyBodyToResponse();
+        }
+    }
+}
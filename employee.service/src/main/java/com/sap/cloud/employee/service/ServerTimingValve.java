@@ -0,0 +1,27 @@
+package com.sap.cloud.employee.service;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+/**
+ * Hands the connector's start time of a request (when Tomcat began reading it, as
+ * in the access log's '%D') to the {@link ServerTiming}, so that its 'dispatch'
+ * phase includes parsing the request and Tomcat's pipeline before the filters.
+ */
+public class ServerTimingValve extends ValveBase {
+
+    public ServerTimingValve() {
+        super(true);
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        ServerTiming.received(request, request.getCoyoteRequest().getStartTime());
+        getNext().invoke(request, response);
+    }
+}
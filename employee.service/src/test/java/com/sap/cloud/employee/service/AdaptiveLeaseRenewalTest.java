@@ -0,0 +1,160 @@
+package com.sap.cloud.employee.service;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.commons.util.InetUtils;
+import org.springframework.cloud.commons.util.InetUtilsProperties;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.Filterable;
+import com.sun.jersey.core.header.InBoundHeaders;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link AdaptiveLeaseRenewal}: lease settings and heartbeat follow the schedule, renewals are passed on.
+ */
+public class AdaptiveLeaseRenewalTest extends TestCase {
+
+    private final AtomicLong time = new AtomicLong(1_000_000);
+    private final List<Integer> heartbeats = new ArrayList<>();
+    private EurekaInstanceConfigBean instanceConfig;
+    private ApplicationInfoManager applicationInfoManager;
+    private AdaptiveLeaseRenewal renewal;
+
+    @Override
+    protected void setUp() {
+        instanceConfig = new EurekaInstanceConfigBean(new InetUtils(new InetUtilsProperties()));
+        instanceConfig.setLeaseRenewalIntervalInSeconds(30);
+        instanceConfig.setLeaseExpirationDurationInSeconds(90);
+        InstanceInfo info = InstanceInfo.Builder.newBuilder()
+                .setAppName("EMPLOYEE-SERVICE")
+                .setInstanceId("host:employee-service:8080")
+                .setHostName("host")
+                .setStatus(InstanceStatus.UP)
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder().setRenewalIntervalInSecs(30).setDurationInSecs(90).build())
+                .build();
+        applicationInfoManager = new ApplicationInfoManager(instanceConfig, info);
+        renewal = new AdaptiveLeaseRenewal(applicationInfoManager, instanceConfig, new LeaseRenewalSchedule(30, 90, 120, 300, 3),
+                intervalSecs -> heartbeats.add(intervalSecs), time::get);
+    }
+
+    public void testRaisesDurationBeforeInterval() {
+        time.addAndGet(300_000);
+
+        renewal.adjust();
+        assertEquals(30, instanceConfig.getLeaseRenewalIntervalInSeconds());
+        assertEquals(180, instanceConfig.getLeaseExpirationDurationInSeconds());
+        assertEquals(180, info().getLeaseInfo().getDurationInSecs());
+        assertTrue(info().isDirty());
+        assertTrue(heartbeats.isEmpty());
+
+        renewal.adjust(); // the longer lease is not registered yet
+        assertEquals(30, instanceConfig.getLeaseRenewalIntervalInSeconds());
+        assertTrue(heartbeats.isEmpty());
+
+        registered();
+        renewal.adjust();
+        assertEquals(60, instanceConfig.getLeaseRenewalIntervalInSeconds());
+        assertEquals(60, info().getLeaseInfo().getRenewalIntervalInSecs());
+        assertEquals(Arrays.asList(60), heartbeats);
+    }
+
+    public void testLowersDurationAfterRenewalAtShorterInterval() {
+        time.addAndGet(300_000);
+        renewal.adjust();
+        registered();
+        renewal.adjust();
+
+        applicationInfoManager.setInstanceStatus(InstanceStatus.DOWN);
+        renewal.adjust();
+        assertEquals(30, instanceConfig.getLeaseRenewalIntervalInSeconds());
+        assertEquals(Arrays.asList(60, 30), heartbeats);
+        applicationInfoManager.setInstanceStatus(InstanceStatus.UP);
+
+        time.addAndGet(1000);
+        renewal.adjust(); // the heartbeat scheduled before may still come after the longer interval
+        assertEquals(180, instanceConfig.getLeaseExpirationDurationInSeconds());
+
+        time.addAndGet(1000);
+        send(renewalRequest(), response(200));
+        renewal.adjust();
+        assertEquals(90, instanceConfig.getLeaseExpirationDurationInSeconds());
+        assertEquals(90, info().getLeaseInfo().getDurationInSecs());
+    }
+
+    public void testKeepsIntervalIfHeartbeatCannotFollow() {
+        renewal = new AdaptiveLeaseRenewal(applicationInfoManager, instanceConfig, new LeaseRenewalSchedule(30, 90, 120, 300, 3),
+                intervalSecs -> false, time::get);
+        time.addAndGet(300_000);
+        renewal.adjust();
+        registered();
+
+        renewal.adjust();
+        assertEquals(30, instanceConfig.getLeaseRenewalIntervalInSeconds());
+        assertEquals(30, info().getLeaseInfo().getRenewalIntervalInSecs());
+    }
+
+    public void testPassesOnAllRequests() {
+        ClientResponse notFound = response(404);
+
+        assertSame(notFound, send(renewalRequest(), notFound));
+        assertSame(notFound, send(ClientRequest.create().build(URI.create("http://localhost:8761/eureka/apps/delta"), "GET"), notFound));
+    }
+
+    public void testFailedRenewalDoesNotCount() {
+        time.addAndGet(300_000);
+        renewal.adjust();
+        registered();
+        renewal.adjust();
+        applicationInfoManager.setInstanceStatus(InstanceStatus.DOWN);
+        renewal.adjust();
+        applicationInfoManager.setInstanceStatus(InstanceStatus.UP);
+
+        time.addAndGet(1000);
+        send(renewalRequest(), response(404));
+        renewal.adjust();
+        assertEquals(180, instanceConfig.getLeaseExpirationDurationInSeconds());
+    }
+
+    /**
+     * Sends {@code request} through the filter to a server answering with {@code response}.
+     */
+    private ClientResponse send(ClientRequest request, ClientResponse response) {
+        Filterable transport = new Filterable(next -> response) {
+        };
+        transport.addFilter(renewal);
+        return transport.getHeadHandler().handle(request);
+    }
+
+    private InstanceInfo info() {
+        return applicationInfoManager.getInfo();
+    }
+
+    /**
+     * The instance info replication has re-registered the instance.
+     */
+    private void registered() {
+        info().unsetIsDirty(info().getLastDirtyTimestamp());
+    }
+
+    private ClientRequest renewalRequest() {
+        return ClientRequest.create().build(
+                URI.create("http://localhost:8761/eureka/apps/EMPLOYEE-SERVICE/host:employee-service:8080?status=UP"), "PUT");
+    }
+
+    private static ClientResponse response(int status) {
+        return new ClientResponse(status, new InBoundHeaders(), new ByteArrayInputStream(new byte[0]), null);
+    }
+}
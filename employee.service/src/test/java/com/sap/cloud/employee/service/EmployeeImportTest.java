@@ -0,0 +1,193 @@
+package com.sap.cloud.employee.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link EmployeeImport}: CSV and NDJSON parsing, rejected rows, batching and the progress stream.
+ */
+public class EmployeeImportTest extends TestCase {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Path dir;
+    private EmployeeStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("employee-import");
+        store = new EmployeeStore(dir, false, 100, 1000);
+        store.open();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    public void testCsvWithQuotedFields() throws Exception {
+        List<Map<String, Object>> events = run(1000, "id,name,designation,salary\n"
+                + "7,\"Barks, Carl\",\"Duck \"\"Artist\"\"\",3000\n"
+                + "8,Don Rosa,,\n");
+
+        assertEquals(2, store.size());
+        Employee carl = store.first();
+        assertEquals("Barks, Carl", carl.getName());
+        assertEquals("Duck \"Artist\"", carl.getDesignation());
+        assertEquals(3000.0, carl.getSalary());
+        assertEquals("1", carl.getId()); // the 'id' column is ignored
+        assertNull(store.get("2").getDesignation());
+
+        Map<String, Object> summary = events.get(events.size() - 1);
+        assertEquals("summary", summary.get("type"));
+        assertEquals(3, summary.get("lines"));
+        assertEquals(2, summary.get("imported"));
+        assertEquals(0, summary.get("rejected"));
+        assertNull(summary.get("error"));
+    }
+
+    public void testRejectedRowsAreReportedAndSkipped() throws Exception {
+        List<Map<String, Object>> events = run(1000, "name,salary\n"
+                + ",100\n"
+                + "Carl Barks,lots\n"
+                + "Don Rosa,-1\n"
+                + "\"Floyd Gottfredson,1\n"
+                + "Al Taliaferro,1000\n");
+
+        assertEquals(1, store.size());
+        assertEquals("Al Taliaferro", store.first().getName());
+
+        assertEquals(5, events.size());
+        assertRejected(events.get(0), 2, "name is missing");
+        assertRejected(events.get(1), 3, "salary is not a number: lots");
+        assertRejected(events.get(2), 4, "salary must be a non-negative number");
+        assertRejected(events.get(3), 5, "unterminated quoted field");
+        assertEquals(4, events.get(4).get("rejected"));
+        assertEquals(1, events.get(4).get("imported"));
+    }
+
+    public void testReportedRejectionsAreLimited() throws Exception {
+        EmployeeImport employeeImport = new EmployeeImport(store, mapper, 1000, 2);
+        List<Map<String, Object>> events = run(employeeImport, StandardCharsets.UTF_8, EmployeeImport.Format.CSV,
+                "name\n\n\"a\n\"b\n\"c\n");
+
+        assertEquals(3, events.size());
+        assertEquals("rejected", events.get(1).get("type"));
+        assertEquals(3, events.get(2).get("rejected")); // still counted
+    }
+
+    public void testStoresInBatchesAndReportsProgress() throws Exception {
+        List<Map<String, Object>> events = run(2, "name\nA\nB\nC\nD\nE\n");
+
+        assertEquals(5, store.size());
+        assertEquals(3, events.size());
+        assertEquals("progress", events.get(0).get("type"));
+        assertEquals(3, events.get(0).get("lines"));
+        assertEquals(2, events.get(0).get("imported"));
+        assertEquals("progress", events.get(1).get("type"));
+        assertEquals(4, events.get(1).get("imported"));
+        assertEquals("summary", events.get(2).get("type"));
+        assertEquals(5, events.get(2).get("imported"));
+    }
+
+    public void testNdjson() throws Exception {
+        EmployeeImport employeeImport = new EmployeeImport(store, mapper, 2, 1000);
+        List<Map<String, Object>> events = run(employeeImport, StandardCharsets.UTF_8, EmployeeImport.Format.NDJSON,
+                "{\"name\":\"Carl Barks\",\"designation\":\"Artist\",\"salary\":3000}\n"
+                + "{\"name\":\n"
+                + "\n"
+                + "{\"id\":\"99\",\"name\":\"Don Rosa\",\"salary\":2000}\n");
+
+        assertEquals(2, store.size());
+        assertEquals("Artist", store.get("1").getDesignation());
+        assertEquals("Don Rosa", store.get("2").getName());
+
+        assertEquals(3, events.size());
+        assertEquals("rejected", events.get(0).get("type"));
+        assertEquals(2, events.get(0).get("line"));
+        assertTrue(((String) events.get(0).get("reason")).startsWith("invalid JSON"));
+        assertEquals("progress", events.get(1).get("type"));
+        assertEquals(4, events.get(1).get("lines"));
+        assertEquals("summary", events.get(2).get("type"));
+        assertEquals(2, events.get(2).get("imported"));
+        assertEquals(1, events.get(2).get("rejected"));
+    }
+
+    public void testNdjsonNullIsRejected() throws Exception {
+        List<Map<String, Object>> events = run(new EmployeeImport(store, mapper, 1000, 1000), StandardCharsets.UTF_8,
+                EmployeeImport.Format.NDJSON, "null\n{\"name\":\"Carl Barks\"}\n");
+
+        assertEquals(1, store.size());
+        assertRejected(events.get(0), 1, "empty record");
+        assertEquals(1, events.get(1).get("imported"));
+        assertEquals(1, events.get(1).get("rejected"));
+    }
+
+    public void testDecodesRequestCharset() throws Exception {
+        List<Map<String, Object>> events = run(new EmployeeImport(store, mapper, 1000, 1000), StandardCharsets.ISO_8859_1,
+                EmployeeImport.Format.CSV, "name\nJürgen Müller\n");
+
+        assertEquals(1, events.get(0).get("imported"));
+        assertEquals("Jürgen Müller", store.first().getName());
+    }
+
+    public void testMalformedHeaderIsBadRequest() throws Exception {
+        try {
+            run(1000, "\"name,salary\nCarl Barks,3000\n");
+            fail("expected ResponseStatusException");
+        } catch (ResponseStatusException expected) {
+            assertEquals(HttpStatus.BAD_REQUEST, expected.getStatus());
+        }
+        try {
+            run(1000, "designation,salary\nArtist,3000\n");
+            fail("expected ResponseStatusException");
+        } catch (ResponseStatusException expected) {
+            assertEquals(HttpStatus.BAD_REQUEST, expected.getStatus());
+        }
+        assertEquals(0, store.size());
+    }
+
+    private static void assertRejected(Map<String, Object> event, int line, String reason) {
+        assertEquals("rejected", event.get("type"));
+        assertEquals(line, event.get("line"));
+        assertEquals(reason, event.get("reason"));
+    }
+
+    private List<Map<String, Object>> run(int batchSize, String csv) throws IOException {
+        return run(new EmployeeImport(store, mapper, batchSize, 1000), StandardCharsets.UTF_8, EmployeeImport.Format.CSV, csv);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> run(EmployeeImport employeeImport, Charset charset, EmployeeImport.Format format,
+                                          String body) throws IOException {
+        ByteArrayOutputStream progress = new ByteArrayOutputStream();
+        employeeImport.run(new ByteArrayInputStream(body.getBytes(charset)), charset, format, progress);
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (String line : new String(progress.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            events.add(mapper.readValue(line, Map.class));
+        }
+        return events;
+    }
+}
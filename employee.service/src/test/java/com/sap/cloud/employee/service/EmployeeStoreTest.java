@@ -0,0 +1,155 @@
+package com.sap.cloud.employee.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link EmployeeStore}: recovery from the log, from snapshots, from torn writes and
+ * from corrupt segments.
+ */
+public class EmployeeStoreTest extends TestCase {
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("employee-store");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    public void testReplaysLogAfterRestart() throws Exception {
+        EmployeeStore store = open(1000);
+        Employee carl = store.create(employee("Carl Barks", 3000));
+        Employee don = store.create(employee("Don Rosa", 2000));
+        store.update(carl.getId(), employee("Carl Barks", 3500));
+        assertNotNull(store.delete(don.getId()));
+        assertNull(store.delete(don.getId()));
+        assertNull(store.update("42", employee("Nobody", 0)));
+        store.close();
+
+        store = open(1000);
+        assertEquals(1, store.size());
+        assertEquals(3500.0, store.get(carl.getId()).getSalary());
+        assertNull(store.get(don.getId()));
+        assertEquals("5", store.create(employee("Floyd Gottfredson", 1000)).getId()); // ids are never reused
+        store.close();
+    }
+
+    public void testRecoversFromSnapshotAndDropsCoveredSegments() throws Exception {
+        EmployeeStore store = open(10);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            employees.add(employee("Employee " + i, i));
+        }
+        store.createAll(employees);
+        store.delete("1");
+        store.close();
+
+        assertEquals(1, count("snapshot-"));
+        assertEquals(1, count("wal-"));
+
+        store = open(10);
+        assertEquals(24, store.size());
+        assertEquals("Employee 24", store.get("25").getName());
+        assertEquals("2", store.list().get(0).getId());
+        store.close();
+    }
+
+    public void testIgnoresTornWrite() throws Exception {
+        EmployeeStore store = open(1000);
+        store.create(employee("Carl Barks", 3000));
+        store.close();
+
+        // half of the next record, as a crash during the write would leave it
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        Employee don = employee("Don Rosa", 2000);
+        don.setId("2");
+        EmployeeLog.encode(record, EmployeeLog.PUT, 2, don);
+        Path segment = dir.resolve(String.format("wal-%020d.log", 2));
+        Files.write(segment, Arrays.copyOf(record.toByteArray(), record.size() / 2), StandardOpenOption.APPEND);
+
+        store = open(1000);
+        assertEquals(1, store.size());
+        assertEquals(0, Files.size(segment));
+        assertEquals("2", store.create(don).getId()); // the torn record was never acknowledged
+        store.close();
+
+        store = open(1000);
+        assertEquals(2, store.size());
+        assertEquals("Don Rosa", store.get("2").getName());
+        store.close();
+    }
+
+    public void testFailsOnCorruptEarlierSegment() throws Exception {
+        EmployeeStore store = open(1000);
+        store.create(employee("Carl Barks", 3000));
+        store.close();
+
+        // a bad record in a segment that is followed by another one is not a torn write
+        Path segment = dir.resolve(String.format("wal-%020d.log", 2));
+        Files.write(segment, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+        Files.createFile(dir.resolve(String.format("wal-%020d.log", 3)));
+
+        try {
+            open(1000);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains(segment.getFileName().toString()));
+        }
+        assertEquals(3, Files.size(segment));
+    }
+
+    public void testRejectsWritesAfterClose() throws Exception {
+        EmployeeStore store = open(1000);
+        store.close();
+
+        try {
+            store.create(employee("Carl Barks", 3000));
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertEquals("Employee store is closed", expected.getMessage());
+        }
+    }
+
+    private EmployeeStore open(long snapshotEvery) throws IOException {
+        EmployeeStore store = new EmployeeStore(dir, false, 100, snapshotEvery);
+        store.open();
+        return store;
+    }
+
+    private int count(String prefix) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path file : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Employee employee(String name, double salary) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setDesignation("Artist");
+        employee.setSalary(salary);
+        return employee;
+    }
+}
@@ -1,8 +1,12 @@
 package com.sap.cloud.eureka.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
 
 @SpringBootApplication
 @EnableEurekaServer
@@ -11,4 +15,18 @@ public class App {
     public static void main(String[] args) {
         SpringApplication.run(App.class, args);
     }
-}
\ No newline at end of file
+
+    /**
+     * Serves registry fetches from pre-encoded snapshots. Needs to run before
+     * the Jersey filter that hosts Eureka's REST resources.
+     */
+    @Bean
+    public FilterRegistrationBean<RegistrySnapshotFilter> registrySnapshotFilter(RegistrySnapshotCache snapshotCache,
+            @Value("${registry.snapshot.enabled:true}") boolean enabled) {
+        FilterRegistrationBean<RegistrySnapshotFilter> registration = new FilterRegistrationBean<>(new RegistrySnapshotFilter(snapshotCache));
+        registration.addUrlPatterns("/eureka/apps", "/eureka/apps/", "/eureka/apps/delta");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
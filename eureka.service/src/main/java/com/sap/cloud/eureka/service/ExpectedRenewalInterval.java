@@ -0,0 +1,113 @@
+package com.sap.cloud.eureka.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.EurekaServerConfigBean;
+import org.springframework.stereotype.Component;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+/**
+ * Lets self-preservation follow the renewal intervals the instances registered.
+ *
+ * Eureka expects one renewal per instance every 'expected-client-renewal-interval-seconds'.
+ * Services with adaptive lease renewal register longer intervals once they are
+ * stable, so with a fixed setting the server counts their renewals as missing,
+ * enters self-preservation and stops evicting. Every
+ * 'registry.expected-renewal-interval.update-interval-ms' this component sets the
+ * expected interval to the one at which the registered fleet renews as a whole,
+ * from each instance's registered lease. Eureka applies it with its next threshold
+ * update ('renewal-threshold-update-interval-ms'). The configured value is used
+ * for an empty registry and for instances without lease information.
+ */
+@Component
+public class ExpectedRenewalInterval {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpectedRenewalInterval.class);
+
+    private ScheduledExecutorService updater;
+    private int configuredIntervalSecs;
+
+    @Autowired
+    private PeerAwareInstanceRegistry registry;
+
+    @Autowired
+    private EurekaServerConfig serverConfig;
+
+    @Value("${registry.expected-renewal-interval.follow-registered-leases:true}")
+    private boolean enabled;
+
+    @Value("${registry.expected-renewal-interval.update-interval-ms:60000}")
+    private long updateIntervalMs;
+
+    @PostConstruct
+    public void start() {
+        configuredIntervalSecs = serverConfig.getExpectedClientRenewalIntervalSeconds();
+        if (!enabled || !(serverConfig instanceof EurekaServerConfigBean)) {
+            return;
+        }
+        updater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expected-renewal-interval");
+            thread.setDaemon(true);
+            return thread;
+        });
+        updater.scheduleWithFixedDelay(this::update, updateIntervalMs, updateIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (updater != null) {
+            updater.shutdownNow();
+        }
+    }
+
+    void update() {
+        try {
+            int intervalSecs = expectedIntervalSecs(registry.getApplications(), configuredIntervalSecs);
+            EurekaServerConfigBean config = (EurekaServerConfigBean) serverConfig;
+            if (intervalSecs != config.getExpectedClientRenewalIntervalSeconds()) {
+                logger.info("Expected client renewal interval changed from {} s to {} s",
+                        config.getExpectedClientRenewalIntervalSeconds(), intervalSecs);
+                config.setExpectedClientRenewalIntervalSeconds(intervalSecs);
+            }
+        } catch (Exception ex) {
+            logger.error("Failed to update the expected client renewal interval.", ex);
+        }
+    }
+
+    /**
+     * The interval at which the instances renew on average: 60 s divided by the
+     * average number of renewals per instance and minute, rounded up so that the
+     * threshold never expects more renewals than the fleet sends.
+     */
+    static int expectedIntervalSecs(Applications applications, int defaultIntervalSecs) {
+        int instances = 0;
+        double renewalsPerMin = 0;
+        for (Application application : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstances()) {
+                LeaseInfo lease = instance.getLeaseInfo();
+                int intervalSecs = lease == null || lease.getRenewalIntervalInSecs() <= 0 ? defaultIntervalSecs : lease.getRenewalIntervalInSecs();
+                renewalsPerMin += 60.0 / intervalSecs;
+                instances++;
+            }
+        }
+        if (instances == 0) {
+            return defaultIntervalSecs;
+        }
+        return (int) Math.ceil(60.0 * instances / renewalsPerMin - 1e-9);
+    }
+}
@@ -0,0 +1,183 @@
+package com.sap.cloud.eureka.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+/**
+ * Persists the registry to a local {@link RegistrySnapshotFile} and restores it on boot.
+ *
+ * Without this, a restarted Eureka server starts with an empty registry and (in
+ * standalone mode) refuses registry fetches until 'wait-time-in-ms-when-sync-empty'
+ * has passed, while clients re-register one heartbeat at a time.
+ *
+ * On restore, each instance's lease age is reconciled against the time that passed
+ * since its last recorded renewal: instances whose lease would have expired in
+ * the meantime are dropped, all others are registered again (without replication
+ * to peers). The server has already opened for traffic with the count from the
+ * peer sync (at least 'default-open-for-traffic-count'), and each new registration
+ * adds one client to the renewals it expects, so the restored instances are counted
+ * on top of that instead of replacing it. Status overrides (e.g. an instance taken
+ * OUT_OF_SERVICE) are restored with their instances.
+ *
+ * Restored leases are registered with their full duration, since Eureka keeps a
+ * lease's duration for all later renewals. They are only given the remaining time
+ * of the recorded lease, though: an instance that has not renewed by then did not
+ * survive the restart and is cancelled.
+ */
+@Component
+public class RegistryPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryPersistence.class);
+
+    private ScheduledExecutorService writer;
+
+    @Autowired
+    private PeerAwareInstanceRegistry registry;
+
+    @Value("${registry.persistence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${registry.persistence.file:${java.io.tmpdir}/eureka-registry.snapshot}")
+    private String file;
+
+    @Value("${registry.persistence.interval-ms:30000}")
+    private long intervalMs;
+
+    private volatile long restoredAt;
+
+    public RegistryPersistence() {
+    }
+
+    /**
+     * For tests: persists {@code registry} to {@code file}, without waiting for the registry to become available.
+     */
+    RegistryPersistence(PeerAwareInstanceRegistry registry, String file) {
+        this.registry = registry;
+        this.file = file;
+        this.enabled = true;
+        this.writer = newWriter();
+    }
+
+    @EventListener
+    public void onRegistryAvailable(EurekaRegistryAvailableEvent event) {
+        if (!enabled) {
+            return;
+        }
+        writer = newWriter();
+        restore();
+        writer.scheduleWithFixedDelay(this::save, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ScheduledExecutorService newWriter() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "registry-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            writer.shutdownNow();
+            save();
+        }
+    }
+
+    void save() {
+        List<InstanceInfo> instances = new ArrayList<>();
+        for (Application application : registry.getApplications().getRegisteredApplications()) {
+            instances.addAll(application.getInstances());
+        }
+        try {
+            long start = System.currentTimeMillis();
+            RegistrySnapshotFile.write(Paths.get(file), instances);
+            logger.debug("Persisted {} instances to {} in {} ms", instances.size(), file, System.currentTimeMillis() - start);
+        } catch (Exception ex) {
+            logger.error("Failed to persist registry to {}", file, ex);
+        }
+    }
+
+    void restore() {
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            logger.info("No registry snapshot found at {}", file);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        RegistrySnapshotFile.Content content;
+        try {
+            content = RegistrySnapshotFile.read(path);
+        } catch (Exception ex) {
+            logger.error("Failed to read registry snapshot {}, starting empty.", file, ex);
+            return;
+        }
+
+        int restored = 0;
+        int expired = 0;
+        for (InstanceInfo instance : content.getInstances()) {
+            LeaseInfo lease = instance.getLeaseInfo();
+            long leaseDurationMs = lease.getDurationInSecs() * 1000L;
+            long lastRenewal = lease.getRenewalTimestamp() > 0 ? lease.getRenewalTimestamp() : content.getWrittenAt();
+            long remainingMs = lastRenewal + leaseDurationMs - start;
+            if (remainingMs <= 0) {
+                expired++;
+                continue;
+            }
+            if (registry.getInstanceByAppAndId(instance.getAppName(), instance.getId(), false) != null) {
+                continue; // re-registered on its own in the meantime
+            }
+            registry.register(instance, lease.getDurationInSecs(), true);
+            if (instance.getOverriddenStatus() != InstanceStatus.UNKNOWN) {
+                registry.storeOverriddenStatusIfRequired(instance.getAppName(), instance.getId(), instance.getOverriddenStatus());
+            }
+            writer.schedule(() -> cancelIfNotRenewed(instance.getAppName(), instance.getId()), remainingMs, TimeUnit.MILLISECONDS);
+            restored++;
+        }
+
+        restoredAt = System.currentTimeMillis();
+        logger.info("Restored {} instances ({} expired) from registry snapshot written {} ms ago in {} ms",
+                restored, expired, start - content.getWrittenAt(), restoredAt - start);
+    }
+
+    /**
+     * Cancels a restored instance whose remaining lease ran out without a renewal.
+     * Instances that renewed, or registered again, since the restore are left alone.
+     */
+    void cancelIfNotRenewed(String appName, String id) {
+        InstanceInfo instance = registry.getInstanceByAppAndId(appName, id, false);
+        if (instance == null) {
+            return;
+        }
+        LeaseInfo lease = instance.getLeaseInfo();
+        if (lease.getRegistrationTimestamp() > restoredAt || lease.getRenewalTimestamp() > lease.getRegistrationTimestamp()) {
+            return;
+        }
+        if (registry.cancel(appName, id, true)) {
+            logger.info("Cancelled restored instance {}/{}, no renewal within its remaining lease", appName, id);
+        }
+    }
+}
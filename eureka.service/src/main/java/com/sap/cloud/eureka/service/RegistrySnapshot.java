@@ -0,0 +1,75 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, pre-encoded view of the registry as served to fetching clients.
+ *
+ * Holds the full and the delta payload, each as plain and as GZIP-compressed
+ * bytes. A snapshot is built once per registry change by
+ * {@link RegistrySnapshotCache} and then shared by all readers without any locking.
+ */
+public final class RegistrySnapshot {
+
+    private final long version;
+    private final long createdAt;
+    private final int instanceCount;
+    private final byte[] full;
+    private final byte[] fullGzip;
+    private final byte[] delta;
+    private final byte[] deltaGzip;
+
+    private RegistrySnapshot(long version, int instanceCount, byte[] full, byte[] delta) {
+        this.version = version;
+        this.createdAt = System.currentTimeMillis();
+        this.instanceCount = instanceCount;
+        this.full = full;
+        this.fullGzip = gzip(full);
+        this.delta = delta;
+        this.deltaGzip = gzip(delta);
+    }
+
+    public static RegistrySnapshot of(long version, int instanceCount, byte[] full, byte[] delta) {
+        return new RegistrySnapshot(version, instanceCount, full, delta);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * @return the payload for a full ('/apps') or delta ('/apps/delta') fetch.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] payload(boolean isDelta, boolean gzipped) {
+        if (isDelta) {
+            return gzipped ? deltaGzip : delta;
+        }
+        return gzipped ? fullGzip : full;
+    }
+
+    public String etag(boolean isDelta) {
+        return "\"" + version + (isDelta ? "-d" : "-f") + "\"";
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,175 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import com.netflix.eureka.util.EurekaMonitors;
+
+/**
+ * Keeps the current {@link RegistrySnapshot} and rebuilds it when the registry changes.
+ *
+ * A single background thread checks every 'registry.snapshot.rebuild-delay-ms'
+ * whether the registry was modified and only then copies it and rebuilds the
+ * snapshot, which is swapped in atomically. The check is cheap: it reads Eureka's
+ * own counters of registrations, cancellations (including evictions), status
+ * updates and status override removals ({@link EurekaMonitors}), which every
+ * mutation, local or replicated, increments. Lease renewals are not counted, so
+ * heartbeats cause no rebuilds. Since the registry increments a counter just
+ * before it applies the change, a change seen in one check is rebuilt with the
+ * next one, when the mutation is complete. Changes are thereby coalesced into
+ * at most one rebuild per interval. The snapshot is also rebuilt after
+ * 'registry.snapshot.max-age-ms' so that the delta payload follows Eureka's
+ * recently-changed queue.
+ */
+@Component
+public class RegistrySnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrySnapshotCache.class);
+
+    private final AtomicReference<RegistrySnapshot> current = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean dirty = true;
+    // only accessed by the rebuilder thread
+    private long seenMutations = -1;
+    private boolean mutationPending;
+
+    private ScheduledExecutorService rebuilder;
+
+    @Autowired
+    private PeerAwareInstanceRegistry registry;
+
+    @Autowired
+    private ServerCodecs serverCodecs;
+
+    @Autowired
+    private EurekaServerConfig serverConfig;
+
+    @Value("${registry.snapshot.rebuild-delay-ms:100}")
+    private long rebuildDelayMs;
+
+    @Value("${registry.snapshot.max-age-ms:30000}")
+    private long maxAgeMs;
+
+    public RegistrySnapshotCache() {
+    }
+
+    /**
+     * For tests: starts from {@code snapshot} without a registry.
+     */
+    RegistrySnapshotCache(RegistrySnapshot snapshot, long maxAgeMs) {
+        this.current.set(snapshot);
+        this.dirty = false;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "registry-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.scheduleWithFixedDelay(this::rebuildIfNeeded, 0, rebuildDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * @return the latest snapshot, or null if none has been built yet.
+     */
+    public RegistrySnapshot get() {
+        return current.get();
+    }
+
+    /**
+     * Forces a rebuild with the next check, even if the registry did not change.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public boolean isAccessAllowed() {
+        return registry.shouldAllowAccess(false);
+    }
+
+    /**
+     * @return false if Eureka is configured to disable delta fetches, which it then answers itself.
+     */
+    public boolean isDeltaAllowed() {
+        return !serverConfig.shouldDisableDelta();
+    }
+
+    private void rebuildIfNeeded() {
+        try {
+            if (!shouldRebuild(mutations(), System.currentTimeMillis())) {
+                return;
+            }
+            dirty = false;
+            current.set(build(registry.getApplications()));
+        } catch (Exception ex) {
+            dirty = true;
+            logger.error("Failed to rebuild registry snapshot.", ex);
+        }
+    }
+
+    /**
+     * Whether to rebuild now, given the registry's mutation count: a change seen with
+     * the previous check is rebuilt now, one seen now with the next check.
+     */
+    boolean shouldRebuild(long mutations, long now) {
+        boolean rebuild = mutationPending;
+        mutationPending = seenMutations >= 0 && mutations != seenMutations;
+        seenMutations = mutations;
+        RegistrySnapshot snapshot = current.get();
+        return rebuild || dirty || snapshot == null || now - snapshot.getCreatedAt() >= maxAgeMs;
+    }
+
+    /**
+     * Mutations of the registry so far; lease renewals are not counted.
+     */
+    private static long mutations() {
+        return EurekaMonitors.REGISTER.getCount()
+                + EurekaMonitors.CANCEL.getCount()
+                + EurekaMonitors.STATUS_UPDATE.getCount()
+                + EurekaMonitors.STATUS_OVERRIDE_DELETE.getCount();
+    }
+
+    private RegistrySnapshot build(Applications full) throws IOException {
+        Applications delta = registry.getApplicationDeltas();
+
+        int instanceCount = 0;
+        for (Application application : full.getRegisteredApplications()) {
+            instanceCount += application.getInstances().size();
+        }
+
+        return RegistrySnapshot.of(version.incrementAndGet(), instanceCount, encode(full), encode(delta));
+    }
+
+    private byte[] encode(Applications applications) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serverCodecs.getFullJsonCodec().encode(applications, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,258 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+
+/**
+ * Compact binary file format for persisting the registry across restarts.
+ *
+ * Layout (big endian):
+ * <pre>
+ *   int    magic ('EURS')
+ *   int    format version
+ *   long   time the snapshot was written
+ *   int    number of instances
+ *   instance records, each a fixed sequence of ints, longs, booleans and
+ *   strings (int length, -1 for null, followed by UTF-8 bytes)
+ * </pre>
+ *
+ * Version 2 adds the overridden status, the country id and the data center
+ * metadata (e.g. of {@link AmazonInfo}) to each record; version 1 files are still
+ * read, with the defaults for those.
+ *
+ * Files are written to a temporary file first, synced to disk and then moved in
+ * place, so a crash while writing never leaves a truncated snapshot behind. They
+ * are read back through a memory mapping, without copying the file onto the heap
+ * first.
+ */
+public final class RegistrySnapshotFile {
+
+    private static final int MAGIC = 0x45555253;
+    private static final int FORMAT_VERSION = 2;
+
+    private RegistrySnapshotFile() {
+    }
+
+    /**
+     * Content of a snapshot file.
+     */
+    public static final class Content {
+        private final long writtenAt;
+        private final List<InstanceInfo> instances;
+
+        Content(long writtenAt, List<InstanceInfo> instances) {
+            this.writtenAt = writtenAt;
+            this.instances = instances;
+        }
+
+        public long getWrittenAt() {
+            return writtenAt;
+        }
+
+        public List<InstanceInfo> getInstances() {
+            return instances;
+        }
+    }
+
+    public static void write(Path file, List<InstanceInfo> instances) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(instances.size());
+            for (InstanceInfo instance : instances) {
+                writeInstance(out, instance);
+            }
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Makes the rename durable. Not every platform can open a directory (Windows
+     * cannot); there the rename is left to the file system.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // not supported on this platform
+        }
+    }
+
+    public static Content read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a registry snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != 1 && version != FORMAT_VERSION) {
+                throw new IOException("Unsupported registry snapshot version " + version + ": " + file);
+            }
+            long writtenAt = buffer.getLong();
+            int count = buffer.getInt();
+            List<InstanceInfo> instances = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                instances.add(readInstance(buffer, version));
+            }
+            return new Content(writtenAt, instances);
+        }
+    }
+
+    private static void writeInstance(DataOutputStream out, InstanceInfo instance) throws IOException {
+        writeString(out, instance.getInstanceId());
+        writeString(out, instance.getAppName());
+        writeString(out, instance.getAppGroupName());
+        writeString(out, instance.getHostName());
+        writeString(out, instance.getIPAddr());
+        writeString(out, instance.getVIPAddress());
+        writeString(out, instance.getSecureVipAddress());
+        out.writeInt(instance.getPort());
+        out.writeBoolean(instance.isPortEnabled(PortType.UNSECURE));
+        out.writeInt(instance.getSecurePort());
+        out.writeBoolean(instance.isPortEnabled(PortType.SECURE));
+        writeString(out, instance.getHomePageUrl());
+        writeString(out, instance.getStatusPageUrl());
+        writeString(out, instance.getHealthCheckUrl());
+        writeString(out, instance.getSecureHealthCheckUrl());
+        writeString(out, instance.getASGName());
+        DataCenterInfo dataCenter = instance.getDataCenterInfo();
+        writeString(out, dataCenter == null ? null : dataCenter.getName().name());
+        writeMap(out, dataCenter instanceof AmazonInfo ? ((AmazonInfo) dataCenter).getMetadata() : null);
+        writeString(out, instance.getStatus().name());
+        writeString(out, instance.getOverriddenStatus().name());
+        out.writeInt(instance.getCountryId());
+        out.writeLong(instance.getLastUpdatedTimestamp());
+        out.writeLong(instance.getLastDirtyTimestamp() == null ? 0 : instance.getLastDirtyTimestamp());
+
+        LeaseInfo lease = instance.getLeaseInfo();
+        out.writeInt(lease == null ? LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL : lease.getRenewalIntervalInSecs());
+        out.writeInt(lease == null ? LeaseInfo.DEFAULT_LEASE_DURATION : lease.getDurationInSecs());
+        out.writeLong(lease == null ? 0 : lease.getRegistrationTimestamp());
+        out.writeLong(lease == null ? 0 : lease.getRenewalTimestamp());
+        out.writeLong(lease == null ? 0 : lease.getServiceUpTimestamp());
+
+        writeMap(out, instance.getMetadata());
+    }
+
+    private static InstanceInfo readInstance(ByteBuffer in, int version) {
+        InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder()
+                .setInstanceId(readString(in))
+                .setAppName(readString(in))
+                .setAppGroupName(readString(in))
+                .setHostName(readString(in))
+                .setIPAddr(readString(in))
+                .setVIPAddressDeser(readString(in))
+                .setSecureVIPAddressDeser(readString(in))
+                .setPort(in.getInt())
+                .enablePort(PortType.UNSECURE, in.get() != 0)
+                .setSecurePort(in.getInt())
+                .enablePort(PortType.SECURE, in.get() != 0)
+                .setHomePageUrlForDeser(readString(in))
+                .setStatusPageUrlForDeser(readString(in))
+                .setHealthCheckUrlsForDeser(readString(in), readString(in))
+                .setASGName(readString(in));
+
+        String dataCenter = readString(in);
+        Map<String, String> dataCenterMetadata = version >= 2 ? readMap(in) : null;
+        if (dataCenterMetadata != null && DataCenterInfo.Name.Amazon.name().equals(dataCenter)) {
+            AmazonInfo amazonInfo = new AmazonInfo();
+            amazonInfo.setMetadata(dataCenterMetadata);
+            builder.setDataCenterInfo(amazonInfo);
+        } else {
+            builder.setDataCenterInfo(new MyDataCenterInfo(dataCenter == null ? DataCenterInfo.Name.MyOwn : DataCenterInfo.Name.valueOf(dataCenter)));
+        }
+        builder.setStatus(InstanceStatus.toEnum(readString(in)));
+        if (version >= 2) {
+            builder.setOverriddenStatus(InstanceStatus.toEnum(readString(in)))
+                    .setCountryId(in.getInt());
+        }
+        builder.setLastUpdatedTimestamp(in.getLong())
+                .setLastDirtyTimestamp(in.getLong());
+
+        builder.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                .setRenewalIntervalInSecs(in.getInt())
+                .setDurationInSecs(in.getInt())
+                .setRegistrationTimestamp(in.getLong())
+                .setRenewalTimestamp(in.getLong())
+                .setServiceUpTimestamp(in.getLong())
+                .build());
+
+        builder.setMetadata(readMap(in));
+        return builder.build();
+    }
+
+    /**
+     * Writes the size (-1 for null) followed by the keys and values.
+     */
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Serves full ('GET /eureka/apps') and delta ('GET /eureka/apps/delta') registry
+ * fetches from the current {@link RegistrySnapshot}, in front of Eureka's Jersey
+ * resources.
+ *
+ * A fetch is answered by writing the pre-encoded (and, if the client accepts it,
+ * pre-compressed) bytes of the snapshot; no encoding and no registry access
+ * happen on the request path. Requests the snapshot does not cover (XML or
+ * compact payloads, remote regions, no snapshot yet, access not yet allowed
+ * after startup, deltas while 'eureka.server.disable-delta' is set) are passed on
+ * to Eureka unchanged.
+ */
+public class RegistrySnapshotFilter extends OncePerRequestFilter {
+
+    private static final String APPS_PATH = "/eureka/apps";
+    private static final String DELTA_PATH = "/eureka/apps/delta";
+
+    private final RegistrySnapshotCache snapshotCache;
+
+    public RegistrySnapshotFilter(RegistrySnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean isFull = APPS_PATH.equals(path) || (APPS_PATH + "/").equals(path);
+        boolean isDelta = DELTA_PATH.equals(path);
+
+        RegistrySnapshot snapshot = snapshotCache.get();
+        if (!"GET".equals(request.getMethod()) || !(isFull || isDelta) || snapshot == null
+                || !acceptsFullJson(request) || request.getParameter("regions") != null
+                || !snapshotCache.isAccessAllowed() || (isDelta && !snapshotCache.isDeltaAllowed())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String etag = snapshot.etag(isDelta);
+        response.setHeader("ETag", etag);
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzipped = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] payload = snapshot.payload(isDelta, gzipped);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        if (gzipped) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(payload.length);
+        response.getOutputStream().write(payload);
+    }
+
+    private static boolean acceptsFullJson(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        String eurekaAccept = request.getHeader("X-Eureka-Accept");
+        return accept != null && accept.contains("json") && (eurekaAccept == null || "full".equals(eurekaAccept));
+    }
+}
@@ -0,0 +1,51 @@
+package com.sap.cloud.eureka.service;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+
+import junit.framework.TestCase;
+
+public class ExpectedRenewalIntervalTest extends TestCase {
+
+    public void testEmptyRegistryUsesDefault() {
+        assertEquals(30, ExpectedRenewalInterval.expectedIntervalSecs(new Applications(), 30));
+    }
+
+    public void testFixedIntervals() {
+        assertEquals(30, ExpectedRenewalInterval.expectedIntervalSecs(registry(instance("a", 30), instance("b", 30)), 30));
+    }
+
+    public void testStretchedIntervalsLowerTheExpectedRate() {
+        // 2 + 0.5 renewals per minute from two instances: one renewal every 48 s each
+        assertEquals(48, ExpectedRenewalInterval.expectedIntervalSecs(registry(instance("a", 30), instance("b", 120)), 30));
+        assertEquals(120, ExpectedRenewalInterval.expectedIntervalSecs(registry(instance("a", 120), instance("b", 120)), 30));
+    }
+
+    public void testInstancesWithoutLeaseUseDefault() {
+        assertEquals(40, ExpectedRenewalInterval.expectedIntervalSecs(registry(instance("a", 0), instance("b", 60)), 30));
+    }
+
+    private static Applications registry(InstanceInfo... instances) {
+        Application application = new Application("ADDRESS-SERVICE");
+        for (InstanceInfo instance : instances) {
+            application.addInstance(instance);
+        }
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        return applications;
+    }
+
+    private static InstanceInfo instance(String host, int renewalIntervalSecs) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName("ADDRESS-SERVICE")
+                .setInstanceId(host + ":address-service:8080")
+                .setHostName(host)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setLeaseInfo(renewalIntervalSecs == 0 ? null : LeaseInfo.Builder.newBuilder().setRenewalIntervalInSecs(renewalIntervalSecs).build())
+                .build();
+    }
+}
@@ -0,0 +1,242 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Starts three eureka.service nodes as a peer cluster ('peer' profile) on local
+ * ports and measures peer replication between them. Each node runs in its own JVM,
+ * since Eureka keeps the server context in static singletons
+ * (EurekaServerContextHolder) that nodes in one JVM would share. Node output goes
+ * to 'peer-node-&lt;port&gt;.log' in the temp directory.
+ *
+ * - mass registration: registers N instances on node 1 and measures how long it
+ *   takes until all of them are visible on nodes 2 and 3 (convergence time and
+ *   replicated instances per second).
+ * - instance loss: cancels half of the instances on node 1 and measures how long
+ *   it takes until nodes 2 and 3 have dropped them.
+ *
+ * Peers are polled through the full registry fetch, which is served from the
+ * {@link RegistrySnapshot} and therefore not delayed by Eureka's response cache.
+ *
+ * Not a unit test; run it with
+ *   mvn test-compile exec:java -Dexec.mainClass=com.sap.cloud.eureka.service.PeerReplicationHarness -Dexec.classpathScope=test -Dexec.args="5000"
+ */
+public class PeerReplicationHarness {
+
+    private static final int[] PORTS = { 18761, 18762, 18763 };
+    private static final String APP_NAME = "SIM-SERVICE";
+    private static final long TIMEOUT_MS = 5 * 60 * 1000;
+
+    private static final RestTemplate restTemplate = new RestTemplate();
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        List<Process> nodes = startCluster();
+        try {
+            String node1 = url(PORTS[0]);
+
+            long start = System.currentTimeMillis();
+            forEach(instances, threads, i -> register(node1, i));
+            long registered = System.currentTimeMillis() - start;
+            long[] converged = awaitCount(instances, start);
+            System.out.printf("Mass registration of %d instances: registered on node 1 in %d ms%n", instances, registered);
+            report(instances, converged);
+
+            int lost = instances / 2;
+            start = System.currentTimeMillis();
+            forEach(lost, threads, i -> restTemplate.delete(node1 + "/apps/{app}/{id}", APP_NAME, instanceId(i)));
+            converged = awaitCount(instances - lost, start);
+            System.out.printf("Loss of %d instances:%n", lost);
+            report(lost, converged);
+        } finally {
+            stop(nodes);
+        }
+    }
+
+    private static List<Process> startCluster() throws Exception {
+        StringBuilder peers = new StringBuilder();
+        for (int port : PORTS) {
+            peers.append(peers.length() == 0 ? "" : ",").append(url(port));
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = classPath();
+        List<Process> nodes = Collections.synchronizedList(new ArrayList<>());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> nodes.forEach(Process::destroy)));
+        try {
+            for (int port : PORTS) {
+                File log = new File(System.getProperty("java.io.tmpdir"), "peer-node-" + port + ".log");
+                nodes.add(new ProcessBuilder(java, "-cp", classPath, App.class.getName(),
+                        "--spring.profiles.active=peer",
+                        "--server.port=" + port,
+                        "--eureka.instance.hostname=localhost",
+                        "--eureka.peers=" + peers,
+                        "--eureka.server.wait-time-in-ms-when-sync-empty=0",
+                        "--eureka.server.registry-sync-retries=0",
+                        "--registry.persistence.enabled=false")
+                        .redirectErrorStream(true)
+                        .redirectOutput(log)
+                        .start());
+            }
+            for (int i = 0; i < PORTS.length; i++) {
+                awaitStarted(nodes.get(i), PORTS[i]);
+            }
+        } catch (Exception ex) {
+            stop(nodes);
+            throw ex;
+        }
+        return nodes;
+    }
+
+    private static void awaitStarted(Process node, int port) throws Exception {
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < TIMEOUT_MS) {
+            if (!node.isAlive()) {
+                throw new IllegalStateException("Node on port " + port + " exited with " + node.exitValue() + ", see peer-node-" + port + ".log");
+            }
+            try {
+                count(url(port));
+                return;
+            } catch (RestClientException ex) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("Node on port " + port + " did not start within " + TIMEOUT_MS + " ms");
+    }
+
+    private static void stop(List<Process> nodes) throws InterruptedException {
+        for (Process node : nodes) {
+            node.destroy();
+        }
+        for (Process node : nodes) {
+            if (!node.waitFor(30, TimeUnit.SECONDS)) {
+                node.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * The test class path; under exec:java it is only known to the class loader, not to 'java.class.path'.
+     */
+    private static String classPath() throws URISyntaxException {
+        ClassLoader loader = PeerReplicationHarness.class.getClassLoader();
+        if (!(loader instanceof URLClassLoader)) {
+            return System.getProperty("java.class.path");
+        }
+        StringBuilder classPath = new StringBuilder();
+        for (URL url : ((URLClassLoader) loader).getURLs()) {
+            classPath.append(classPath.length() == 0 ? "" : File.pathSeparator).append(Paths.get(url.toURI()));
+        }
+        return classPath.toString();
+    }
+
+    /**
+     * Waits until nodes 2 and 3 both report {@code expected} simulated instances.
+     *
+     * @return the time in ms (relative to {@code start}) at which each of them converged.
+     */
+    private static long[] awaitCount(int expected, long start) throws Exception {
+        long[] converged = new long[PORTS.length - 1];
+        while (System.currentTimeMillis() - start < TIMEOUT_MS) {
+            boolean done = true;
+            for (int i = 1; i < PORTS.length; i++) {
+                if (converged[i - 1] == 0 && count(url(PORTS[i])) == expected) {
+                    converged[i - 1] = System.currentTimeMillis() - start;
+                }
+                done &= converged[i - 1] > 0;
+            }
+            if (done) {
+                return converged;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Peers did not converge to " + expected + " instances within " + TIMEOUT_MS + " ms");
+    }
+
+    private static void report(int instances, long[] converged) {
+        for (int i = 0; i < converged.length; i++) {
+            System.out.printf("  node %d converged after %6d ms (%8.0f instances/s)%n", i + 2, converged[i], instances * 1000.0 / converged[i]);
+        }
+    }
+
+    private static int count(String eurekaUrl) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        String body = restTemplate.exchange(eurekaUrl + "/apps", HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+        for (JsonNode application : mapper.readTree(body).path("applications").path("application")) {
+            if (APP_NAME.equals(application.path("name").asText())) {
+                JsonNode instances = application.path("instance");
+                return instances.isArray() ? instances.size() : 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void register(String eurekaUrl, int index) {
+        Map<String, Object> instance = new LinkedHashMap<>();
+        instance.put("instanceId", instanceId(index));
+        instance.put("hostName", "sim-" + index + ".local");
+        instance.put("app", APP_NAME);
+        instance.put("ipAddr", "10.1." + (index / 250) + "." + (index % 250));
+        instance.put("vipAddress", APP_NAME.toLowerCase());
+        instance.put("status", "UP");
+        Map<String, Object> port = new LinkedHashMap<>();
+        port.put("$", 8080);
+        port.put("@enabled", "true");
+        instance.put("port", port);
+        Map<String, Object> dataCenterInfo = new LinkedHashMap<>();
+        dataCenterInfo.put("@class", "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo");
+        dataCenterInfo.put("name", "MyOwn");
+        instance.put("dataCenterInfo", dataCenterInfo);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("instance", instance);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(eurekaUrl + "/apps/{app}", new HttpEntity<>(body, headers), Void.class, APP_NAME);
+    }
+
+    private static void forEach(int count, int threads, Consumer<Integer> action) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            executor.execute(() -> action.accept(index));
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private static String instanceId(int index) {
+        return "sim-" + index + ".local:sim-service:8080";
+    }
+
+    private static String url(int port) {
+        return "http://localhost:" + port + "/eureka";
+    }
+}
@@ -0,0 +1,169 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link RegistryPersistence#restore()}: restored leases, their expiry and status overrides.
+ */
+public class RegistryPersistenceTest extends TestCase {
+
+    private static final String APP = "ADDRESS-SERVICE";
+    private static final String ID = "host-a:address-service:8080";
+
+    private Path directory;
+    private Path file;
+    private final FakeRegistry registry = new FakeRegistry();
+    private RegistryPersistence persistence;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("registry-persistence-test");
+        file = directory.resolve("eureka-registry.snapshot");
+        persistence = new RegistryPersistence(registry.proxy(), file.toString());
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        persistence.stop();
+        for (Path path : Files.newDirectoryStream(directory)) {
+            Files.delete(path);
+        }
+        Files.delete(directory);
+    }
+
+    public void testRestoresOverriddenStatus() throws IOException {
+        InstanceInfo instance = instance(90, System.currentTimeMillis());
+        instance.setOverriddenStatus(InstanceStatus.OUT_OF_SERVICE);
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance));
+
+        persistence.restore();
+
+        assertNotNull(registry.instances.get(ID));
+        assertEquals(InstanceStatus.OUT_OF_SERVICE, registry.overrides.get(ID));
+    }
+
+    public void testDropsExpiredLease() throws IOException {
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance(1, System.currentTimeMillis() - 5000)));
+
+        persistence.restore();
+
+        assertTrue(registry.instances.isEmpty());
+        assertTrue(registry.overrides.isEmpty());
+    }
+
+    public void testCancelsRestoredLeaseWithoutRenewal() throws Exception {
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance(1, System.currentTimeMillis() - 700)));
+
+        persistence.restore();
+        assertNotNull(registry.instances.get(ID));
+
+        Thread.sleep(800);
+        assertNull(registry.instances.get(ID));
+    }
+
+    public void testKeepsRestoredLeaseThatRenewed() throws Exception {
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance(1, System.currentTimeMillis() - 700)));
+
+        persistence.restore();
+        Thread.sleep(10);
+        registry.renew(ID);
+
+        Thread.sleep(800);
+        assertNotNull(registry.instances.get(ID));
+    }
+
+    private static InstanceInfo instance(int leaseDurationInSecs, long renewalTimestamp) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(APP)
+                .setInstanceId(ID)
+                .setHostName("host-a")
+                .setIPAddr("10.0.0.1")
+                .setPort(8080)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setStatus(InstanceStatus.UP)
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setDurationInSecs(leaseDurationInSecs)
+                        .setRegistrationTimestamp(renewalTimestamp - 60000)
+                        .setRenewalTimestamp(renewalTimestamp)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Registry of a single application, keeping leases the way Eureka reports them:
+     * registration and renewal timestamp are equal until the first renewal.
+     */
+    private static class FakeRegistry implements InvocationHandler {
+
+        final Map<String, InstanceInfo> instances = Collections.synchronizedMap(new HashMap<>());
+        final Map<String, InstanceStatus> overrides = Collections.synchronizedMap(new HashMap<>());
+
+        PeerAwareInstanceRegistry proxy() {
+            return (PeerAwareInstanceRegistry) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { PeerAwareInstanceRegistry.class }, this);
+        }
+
+        void renew(String id) {
+            InstanceInfo instance = instances.get(id);
+            LeaseInfo lease = instance.getLeaseInfo();
+            instance.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                    .setDurationInSecs(lease.getDurationInSecs())
+                    .setRegistrationTimestamp(lease.getRegistrationTimestamp())
+                    .setRenewalTimestamp(System.currentTimeMillis())
+                    .build());
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+            case "register":
+                InstanceInfo instance = new InstanceInfo((InstanceInfo) args[0]);
+                long now = System.currentTimeMillis();
+                instance.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setDurationInSecs((Integer) args[1])
+                        .setRegistrationTimestamp(now)
+                        .setRenewalTimestamp(now)
+                        .build());
+                instances.put(instance.getId(), instance);
+                return null;
+            case "storeOverriddenStatusIfRequired":
+                overrides.put((String) args[1], (InstanceStatus) args[2]);
+                return null;
+            case "getInstanceByAppAndId":
+                return instances.get(args[1]);
+            case "cancel":
+                overrides.remove(args[1]);
+                return instances.remove(args[1]) != null;
+            case "getApplications":
+                Application application = new Application(APP);
+                for (InstanceInfo registered : instances.values()) {
+                    application.addInstance(registered);
+                }
+                Applications applications = new Applications();
+                applications.addApplication(application);
+                return applications;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.cloud.netflix.eureka.EurekaClientConfigBean;
+import org.springframework.cloud.netflix.eureka.server.EurekaServerConfigBean;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.Version;
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl;
+import com.netflix.eureka.registry.ResponseCache;
+import com.netflix.eureka.registry.ResponseCacheImpl;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import com.netflix.eureka.resources.ServerCodecs;
+
+/**
+ * Benchmark of registry fetch throughput against registry size.
+ *
+ * For each registry size it compares gzipped full fetches from
+ * - 'cache-ro': Eureka's own ResponseCacheImpl as configured by default, which
+ *   serves pre-encoded payloads from a read-only map that is refreshed from the
+ *   read-write cache only every 'response-cache-update-interval-ms' (30 s), so
+ *   fetches are up to that much out of date,
+ * - 'cache-rw': ResponseCacheImpl without the read-only map; every registry change
+ *   invalidates the cached payload and the next fetch encodes it again,
+ * - 'snapshot': the pre-encoded {@link RegistrySnapshot}, rebuilt after each
+ *   registry change like {@link RegistrySnapshotCache} does.
+ * In all modes a writer thread changes the status of one instance every
+ * {@value #CHANGE_INTERVAL_MS} ms through the registry.
+ *
+ * Not a unit test; run it with
+ *   mvn test-compile exec:java -Dexec.mainClass=com.sap.cloud.eureka.service.RegistrySnapshotBenchmark -Dexec.classpathScope=test
+ */
+public class RegistrySnapshotBenchmark {
+
+    private static final int[] REGISTRY_SIZES = { 100, 1000, 5000, 20000 };
+    private static final int READER_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final long RUN_MILLIS = 3000;
+    private static final long CHANGE_INTERVAL_MS = 100;
+
+    private static final Key ALL_APPS_GZIP = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+            Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%10s %10s %14s %14s %12s%n", "instances", "mode", "fetches/s", "MB/s", "payload KB");
+        for (int size : REGISTRY_SIZES) {
+            for (boolean readOnly : new boolean[] { true, false }) {
+                PeerAwareInstanceRegistryImpl registry = createRegistry(size, readOnly);
+                ResponseCache responseCache = registry.getResponseCache();
+                Result result = run(() -> responseCache.getGZIP(ALL_APPS_GZIP), () -> changeStatus(registry));
+                print(size, readOnly ? "cache-ro" : "cache-rw", result);
+            }
+
+            PeerAwareInstanceRegistryImpl registry = createRegistry(size, true);
+            ServerCodecs serverCodecs = new DefaultServerCodecs(new EurekaServerConfigBean());
+            AtomicReference<RegistrySnapshot> current = new AtomicReference<>(snapshotOf(registry, serverCodecs, 1));
+            Result snapshot = run(() -> current.get().payload(false, true), () -> {
+                changeStatus(registry);
+                current.set(snapshotOf(registry, serverCodecs, current.get().getVersion() + 1));
+            });
+            print(size, "snapshot", snapshot);
+        }
+    }
+
+    private static void print(int size, String mode, Result result) {
+        System.out.printf("%10d %10s %14.0f %14.1f %12d%n", size, mode, result.fetchesPerSecond(), result.megabytesPerSecond(), result.payloadBytes / 1024);
+    }
+
+    private static Result run(Fetch fetch, Runnable change) throws Exception {
+        AtomicLong fetches = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        CountDownLatch done = new CountDownLatch(READER_THREADS);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                while (System.currentTimeMillis() < deadline) {
+                    change.run();
+                    Thread.sleep(CHANGE_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < READER_THREADS; i++) {
+            new Thread(() -> {
+                long localFetches = 0;
+                long localBytes = 0;
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        byte[] payload = fetch.fetch();
+                        NULL_OUTPUT.write(payload);
+                        localFetches++;
+                        localBytes += payload.length;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    fetches.addAndGet(localFetches);
+                    bytes.addAndGet(localBytes);
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        writerThread.join();
+        return new Result(fetches.get(), bytes.get(), elapsedNanos, fetches.get() == 0 ? 0 : bytes.get() / fetches.get());
+    }
+
+    /**
+     * A registry without peers; instances are registered as replications, so nothing is replicated.
+     */
+    private static PeerAwareInstanceRegistryImpl createRegistry(int size, boolean useReadOnlyResponseCache) {
+        EurekaServerConfigBean serverConfig = new EurekaServerConfigBean();
+        serverConfig.setUseReadOnlyResponseCache(useReadOnlyResponseCache);
+        PeerAwareInstanceRegistryImpl registry = new PeerAwareInstanceRegistryImpl(serverConfig, new EurekaClientConfigBean(),
+                new DefaultServerCodecs(serverConfig), null);
+        registry.initializedResponseCache();
+        for (Application application : createApplications(size).getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstances()) {
+                registry.register(instance, true);
+            }
+        }
+        return registry;
+    }
+
+    private static final AtomicLong changes = new AtomicLong();
+
+    private static void changeStatus(PeerAwareInstanceRegistryImpl registry) {
+        List<Application> applications = registry.getSortedApplications();
+        Application application = applications.get((int) (changes.get() % applications.size()));
+        List<InstanceInfo> instances = application.getInstances();
+        InstanceInfo instance = instances.get((int) (changes.getAndIncrement() % instances.size()));
+        InstanceStatus status = instance.getStatus() == InstanceStatus.UP ? InstanceStatus.OUT_OF_SERVICE : InstanceStatus.UP;
+        registry.statusUpdate(application.getName(), instance.getId(), status, String.valueOf(instance.getLastDirtyTimestamp()), true);
+    }
+
+    private static Applications createApplications(int size) {
+        Applications applications = new Applications();
+        Application addressService = new Application("ADDRESS-SERVICE");
+        Application employeeService = new Application("EMPLOYEE-SERVICE");
+        for (int i = 0; i < size; i++) {
+            Application application = i % 2 == 0 ? addressService : employeeService;
+            String host = "host-" + i + ".example.com";
+            InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                    .setAppName(application.getName())
+                    .setInstanceId(host + ":" + application.getName().toLowerCase() + ":8080")
+                    .setHostName(host)
+                    .setIPAddr("10.0." + (i / 250) + "." + (i % 250))
+                    .setPort(8080)
+                    .setVIPAddress(application.getName().toLowerCase())
+                    .setHomePageUrl("/", "http://" + host + ":8080/")
+                    .setStatusPageUrl("/actuator/info", "http://" + host + ":8080/actuator/info")
+                    .setHealthCheckUrls("/actuator/health", "http://" + host + ":8080/actuator/health", null)
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .setLeaseInfo(LeaseInfo.Builder.newBuilder().build())
+                    .setStatus(InstanceStatus.UP)
+                    .add("events", "customerCreated,customerDeleted")
+                    .build();
+            application.addInstance(instance);
+        }
+        applications.addApplication(addressService);
+        applications.addApplication(employeeService);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+        return applications;
+    }
+
+    private static RegistrySnapshot snapshotOf(PeerAwareInstanceRegistryImpl registry, ServerCodecs serverCodecs, long version) {
+        try {
+            Applications full = registry.getApplications();
+            return RegistrySnapshot.of(version, full.size(), encode(serverCodecs, full), encode(serverCodecs, registry.getApplicationDeltas()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] encode(ServerCodecs serverCodecs, Applications applications) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serverCodecs.getFullJsonCodec().encode(applications, out);
+        return out.toByteArray();
+    }
+
+    private interface Fetch {
+        byte[] fetch() throws IOException;
+    }
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static class Result {
+        final long fetches;
+        final long bytes;
+        final long elapsedNanos;
+        final long payloadBytes;
+
+        Result(long fetches, long bytes, long elapsedNanos, long payloadBytes) {
+            this.fetches = fetches;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.payloadBytes = payloadBytes;
+        }
+
+        double fetchesPerSecond() {
+            return fetches * 1e9 / elapsedNanos;
+        }
+
+        double megabytesPerSecond() {
+            return bytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+    }
+}
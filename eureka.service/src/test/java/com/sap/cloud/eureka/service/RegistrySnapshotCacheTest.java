@@ -0,0 +1,47 @@
+package com.sap.cloud.eureka.service;
+
+import junit.framework.TestCase;
+
+public class RegistrySnapshotCacheTest extends TestCase {
+
+    private final RegistrySnapshot snapshot = RegistrySnapshot.of(1, 0, new byte[0], new byte[0]);
+
+    public void testNoRebuildWithoutMutation() {
+        RegistrySnapshotCache cache = new RegistrySnapshotCache(snapshot, 60000);
+        long now = snapshot.getCreatedAt();
+
+        assertFalse(cache.shouldRebuild(5, now));
+        assertFalse(cache.shouldRebuild(5, now));
+    }
+
+    public void testMutationIsRebuiltWithNextCheck() {
+        RegistrySnapshotCache cache = new RegistrySnapshotCache(snapshot, 60000);
+        long now = snapshot.getCreatedAt();
+        cache.shouldRebuild(5, now);
+
+        assertFalse("mutation may still be in progress", cache.shouldRebuild(6, now));
+        assertTrue(cache.shouldRebuild(6, now));
+        assertFalse(cache.shouldRebuild(6, now));
+    }
+
+    public void testContinuousMutationsRebuildEveryCheck() {
+        RegistrySnapshotCache cache = new RegistrySnapshotCache(snapshot, 60000);
+        long now = snapshot.getCreatedAt();
+        cache.shouldRebuild(5, now);
+        cache.shouldRebuild(6, now);
+
+        assertTrue(cache.shouldRebuild(7, now));
+        assertTrue(cache.shouldRebuild(7, now));
+        assertFalse(cache.shouldRebuild(7, now));
+    }
+
+    public void testRebuildWhenInvalidatedOrExpired() {
+        RegistrySnapshotCache cache = new RegistrySnapshotCache(snapshot, 60000);
+        long now = snapshot.getCreatedAt();
+        cache.shouldRebuild(5, now);
+
+        assertTrue(cache.shouldRebuild(5, now + 60000));
+        cache.invalidate();
+        assertTrue(cache.shouldRebuild(5, now));
+    }
+}
@@ -0,0 +1,178 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+
+import junit.framework.TestCase;
+
+public class RegistrySnapshotFileTest extends TestCase {
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("registry-snapshot-file-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        for (Path file : Files.newDirectoryStream(directory)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    public void testRoundTrip() throws IOException {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("events", "customerCreated,customerDeleted");
+        metadata.put("zone", "übersee");
+        InstanceInfo address = InstanceInfo.Builder.newBuilder()
+                .setAppName("ADDRESS-SERVICE")
+                .setAppGroupName("CUSTOMERS")
+                .setInstanceId("host-a:address-service:8080")
+                .setHostName("host-a")
+                .setIPAddr("10.0.0.1")
+                .setVIPAddress("address-service")
+                .setSecureVIPAddress("address-service-secure")
+                .setPort(8080)
+                .setSecurePort(8443)
+                .enablePort(PortType.SECURE, true)
+                .setHomePageUrl("/", "http://host-a:8080/")
+                .setStatusPageUrl("/actuator/info", "http://host-a:8080/actuator/info")
+                .setHealthCheckUrls("/actuator/health", "http://host-a:8080/actuator/health", "https://host-a:8443/actuator/health")
+                .setASGName("address-asg")
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setStatus(InstanceStatus.OUT_OF_SERVICE)
+                .setOverriddenStatus(InstanceStatus.OUT_OF_SERVICE)
+                .setCountryId(49)
+                .setLastUpdatedTimestamp(1000L)
+                .setLastDirtyTimestamp(2000L)
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setRenewalIntervalInSecs(60)
+                        .setDurationInSecs(180)
+                        .setRegistrationTimestamp(3000L)
+                        .setRenewalTimestamp(4000L)
+                        .setServiceUpTimestamp(5000L)
+                        .build())
+                .setMetadata(metadata)
+                .build();
+        InstanceInfo employee = InstanceInfo.Builder.newBuilder()
+                .setAppName("EMPLOYEE-SERVICE")
+                .setInstanceId("host-b:employee-service:8080")
+                .setHostName("host-b")
+                .setIPAddr("10.0.0.2")
+                .setPort(8080)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setStatus(InstanceStatus.UP)
+                .build();
+        Path file = directory.resolve("eureka-registry.snapshot");
+
+        long before = System.currentTimeMillis();
+        RegistrySnapshotFile.write(file, Arrays.asList(address, employee));
+        RegistrySnapshotFile.Content content = RegistrySnapshotFile.read(file);
+
+        assertTrue(content.getWrittenAt() >= before);
+        assertEquals(2, content.getInstances().size());
+        assertFalse(Files.exists(directory.resolve("eureka-registry.snapshot.tmp")));
+
+        InstanceInfo restored = content.getInstances().get(0);
+        assertEquals(address.getId(), restored.getId());
+        assertEquals("ADDRESS-SERVICE", restored.getAppName());
+        assertEquals("CUSTOMERS", restored.getAppGroupName());
+        assertEquals("host-a", restored.getHostName());
+        assertEquals("10.0.0.1", restored.getIPAddr());
+        assertEquals("address-service", restored.getVIPAddress());
+        assertEquals("address-service-secure", restored.getSecureVipAddress());
+        assertEquals(8080, restored.getPort());
+        assertTrue(restored.isPortEnabled(PortType.UNSECURE));
+        assertEquals(8443, restored.getSecurePort());
+        assertTrue(restored.isPortEnabled(PortType.SECURE));
+        assertEquals("http://host-a:8080/", restored.getHomePageUrl());
+        assertEquals("http://host-a:8080/actuator/info", restored.getStatusPageUrl());
+        assertEquals("http://host-a:8080/actuator/health", restored.getHealthCheckUrl());
+        assertEquals("https://host-a:8443/actuator/health", restored.getSecureHealthCheckUrl());
+        assertEquals("address-asg", restored.getASGName());
+        assertEquals(DataCenterInfo.Name.MyOwn, restored.getDataCenterInfo().getName());
+        assertEquals(InstanceStatus.OUT_OF_SERVICE, restored.getStatus());
+        assertEquals(InstanceStatus.OUT_OF_SERVICE, restored.getOverriddenStatus());
+        assertEquals(49, restored.getCountryId());
+        assertEquals(1000L, restored.getLastUpdatedTimestamp());
+        assertEquals(Long.valueOf(2000L), restored.getLastDirtyTimestamp());
+        assertEquals(60, restored.getLeaseInfo().getRenewalIntervalInSecs());
+        assertEquals(180, restored.getLeaseInfo().getDurationInSecs());
+        assertEquals(3000L, restored.getLeaseInfo().getRegistrationTimestamp());
+        assertEquals(4000L, restored.getLeaseInfo().getRenewalTimestamp());
+        assertEquals(5000L, restored.getLeaseInfo().getServiceUpTimestamp());
+        assertEquals(metadata, restored.getMetadata());
+
+        InstanceInfo withDefaults = content.getInstances().get(1);
+        assertEquals(employee.getId(), withDefaults.getId());
+        assertNull(withDefaults.getAppGroupName());
+        assertNull(withDefaults.getSecureVipAddress());
+        assertFalse(withDefaults.isPortEnabled(PortType.SECURE));
+        assertEquals(InstanceStatus.UP, withDefaults.getStatus());
+        assertEquals(InstanceStatus.UNKNOWN, withDefaults.getOverriddenStatus());
+        assertEquals(LeaseInfo.DEFAULT_LEASE_DURATION, withDefaults.getLeaseInfo().getDurationInSecs());
+        assertTrue(withDefaults.getMetadata().isEmpty());
+    }
+
+    public void testRoundTripAmazonInfo() throws IOException {
+        AmazonInfo amazonInfo = AmazonInfo.Builder.newBuilder()
+                .addMetadata(AmazonInfo.MetaDataKey.instanceId, "i-0123456789")
+                .addMetadata(AmazonInfo.MetaDataKey.availabilityZone, "eu-central-1a")
+                .build();
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                .setAppName("ADDRESS-SERVICE")
+                .setInstanceId("host-a:address-service:8080")
+                .setHostName("host-a")
+                .setDataCenterInfo(amazonInfo)
+                .build();
+        Path file = directory.resolve("eureka-registry.snapshot");
+
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance));
+
+        DataCenterInfo restored = RegistrySnapshotFile.read(file).getInstances().get(0).getDataCenterInfo();
+        assertEquals(DataCenterInfo.Name.Amazon, restored.getName());
+        assertEquals(amazonInfo.getMetadata(), ((AmazonInfo) restored).getMetadata());
+    }
+
+    public void testOverwritesPreviousSnapshot() throws IOException {
+        Path file = directory.resolve("eureka-registry.snapshot");
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                .setAppName("ADDRESS-SERVICE")
+                .setInstanceId("host-a:address-service:8080")
+                .setHostName("host-a")
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+
+        RegistrySnapshotFile.write(file, Arrays.asList(instance, instance));
+        RegistrySnapshotFile.write(file, Collections.singletonList(instance));
+
+        assertEquals(1, RegistrySnapshotFile.read(file).getInstances().size());
+    }
+
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("not-a-snapshot");
+        Files.write(file, new byte[] { 'a', 'b', 'c', 'd', 0, 0, 0, 1 });
+
+        try {
+            RegistrySnapshotFile.read(file);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().startsWith("Not a registry snapshot"));
+        }
+    }
+}
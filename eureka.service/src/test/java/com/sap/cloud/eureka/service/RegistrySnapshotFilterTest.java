@@ -0,0 +1,154 @@
+package com.sap.cloud.eureka.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import junit.framework.TestCase;
+
+public class RegistrySnapshotFilterTest extends TestCase {
+
+    private static final String FULL = "{\"applications\":\"full\"}";
+    private static final String DELTA = "{\"applications\":\"delta\"}";
+
+    private final RegistrySnapshot snapshot = RegistrySnapshot.of(7, 1,
+            FULL.getBytes(StandardCharsets.UTF_8), DELTA.getBytes(StandardCharsets.UTF_8));
+
+    public void testServesFullAndDeltaJson() throws Exception {
+        MockHttpServletResponse full = serve(snapshot, true, request("/eureka/apps"));
+        assertEquals(200, full.getStatus());
+        assertEquals(FULL, full.getContentAsString());
+        assertEquals("\"7-f\"", full.getHeader("ETag"));
+
+        MockHttpServletResponse delta = serve(snapshot, true, request("/eureka/apps/delta"));
+        assertEquals(DELTA, delta.getContentAsString());
+        assertEquals("\"7-d\"", delta.getHeader("ETag"));
+    }
+
+    public void testServesGzipWhenAccepted() throws Exception {
+        MockHttpServletRequest request = request("/eureka/apps/");
+        request.addHeader("Accept-Encoding", "deflate, gzip");
+        MockHttpServletResponse response = serve(snapshot, true, request);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals(FULL, gunzip(response.getContentAsByteArray()));
+    }
+
+    public void testAnswersNotModifiedForCurrentEtag() throws Exception {
+        MockHttpServletRequest request = request("/eureka/apps");
+        request.addHeader("If-None-Match", "\"7-f\"");
+        MockHttpServletResponse response = serve(snapshot, true, request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    public void testServesFullEurekaAccept() throws Exception {
+        MockHttpServletRequest request = request("/eureka/apps");
+        request.addHeader("X-Eureka-Accept", "full");
+        assertEquals(FULL, serve(snapshot, true, request).getContentAsString());
+    }
+
+    public void testPassesOnXmlAndMissingAccept() throws Exception {
+        MockHttpServletRequest xml = new MockHttpServletRequest("GET", "/eureka/apps");
+        xml.addHeader("Accept", "application/xml");
+        assertPassedOn(snapshot, true, xml);
+
+        assertPassedOn(snapshot, true, new MockHttpServletRequest("GET", "/eureka/apps"));
+    }
+
+    public void testPassesOnCompactEurekaAccept() throws Exception {
+        MockHttpServletRequest request = request("/eureka/apps");
+        request.addHeader("X-Eureka-Accept", "compact");
+        assertPassedOn(snapshot, true, request);
+    }
+
+    public void testPassesOnRemoteRegions() throws Exception {
+        MockHttpServletRequest request = request("/eureka/apps/delta");
+        request.setParameter("regions", "us-east-1");
+        assertPassedOn(snapshot, true, request);
+    }
+
+    public void testPassesOnOtherRequests() throws Exception {
+        assertPassedOn(snapshot, true, request("/eureka/apps/ADDRESS-SERVICE"));
+        MockHttpServletRequest post = request("/eureka/apps");
+        post.setMethod("POST");
+        assertPassedOn(snapshot, true, post);
+        assertPassedOn(null, true, request("/eureka/apps"));
+        assertPassedOn(snapshot, false, request("/eureka/apps"));
+    }
+
+    public void testPassesOnDeltaWhenDisabled() throws Exception {
+        assertPassedOn(cache(snapshot, true, false), request("/eureka/apps/delta"));
+        assertEquals(FULL, serve(cache(snapshot, true, false), request("/eureka/apps")).getContentAsString());
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Accept", "application/json");
+        return request;
+    }
+
+    private static void assertPassedOn(RegistrySnapshot snapshot, boolean accessAllowed, MockHttpServletRequest request) throws Exception {
+        assertPassedOn(cache(snapshot, accessAllowed, true), request);
+    }
+
+    private static void assertPassedOn(RegistrySnapshotCache cache, MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RegistrySnapshotFilter(cache).doFilter(request, response, chain);
+        assertSame(request, chain.getRequest());
+        assertNull(response.getHeader("ETag"));
+    }
+
+    private static MockHttpServletResponse serve(RegistrySnapshot snapshot, boolean accessAllowed, MockHttpServletRequest request) throws Exception {
+        return serve(cache(snapshot, accessAllowed, true), request);
+    }
+
+    private static MockHttpServletResponse serve(RegistrySnapshotCache cache, MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RegistrySnapshotFilter(cache).doFilter(request, response, chain);
+        assertNull("request must not reach Eureka", chain.getRequest());
+        return response;
+    }
+
+    private static RegistrySnapshotCache cache(RegistrySnapshot snapshot, boolean accessAllowed, boolean deltaAllowed) {
+        return new RegistrySnapshotCache() {
+            @Override
+            public RegistrySnapshot get() {
+                return snapshot;
+            }
+
+            @Override
+            public boolean isAccessAllowed() {
+                return accessAllowed;
+            }
+
+            @Override
+            public boolean isDeltaAllowed() {
+                return deltaAllowed;
+            }
+        };
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+package com.sap.cloud.fleet.simulator;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Minimal client for Eureka's REST API (see https://github.com/Netflix/eureka/wiki/Eureka-REST-operations).
+ *
+ * Talks to the server directly instead of going through a DiscoveryClient, so
+ * that a few threads can act on behalf of thousands of virtual instances.
+ * Calls throw on any non-2xx response.
+ */
+public class EurekaRestClient {
+
+    private final String eurekaUrl;
+    private final String serverUrl;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public EurekaRestClient(String eurekaUrl, int timeoutMs) {
+        this.eurekaUrl = eurekaUrl.endsWith("/") ? eurekaUrl.substring(0, eurekaUrl.length() - 1) : eurekaUrl;
+        this.serverUrl = this.eurekaUrl.endsWith("/eureka") ? this.eurekaUrl.substring(0, this.eurekaUrl.length() - "/eureka".length()) : this.eurekaUrl;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    public void register(VirtualInstance instance, int renewalIntervalInSecs, int durationInSecs) {
+        HttpHeaders headers = jsonHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(eurekaUrl + "/apps/{app}", new HttpEntity<>(instance.toRegistration(renewalIntervalInSecs, durationInSecs), headers),
+                Void.class, instance.getAppName());
+    }
+
+    public void renew(VirtualInstance instance) {
+        restTemplate.put(eurekaUrl + "/apps/{app}/{id}?status=UP&lastDirtyTimestamp={ts}", null,
+                instance.getAppName(), instance.getInstanceId(), instance.getLastDirtyTimestamp());
+    }
+
+    public void updateEvents(VirtualInstance instance, String events) {
+        restTemplate.put(eurekaUrl + "/apps/{app}/{id}/metadata?events={events}", null,
+                instance.getAppName(), instance.getInstanceId(), events);
+    }
+
+    public void cancel(VirtualInstance instance) {
+        restTemplate.delete(eurekaUrl + "/apps/{app}/{id}", instance.getAppName(), instance.getInstanceId());
+    }
+
+    /**
+     * @return the number of (compressed) bytes received for a full or delta registry fetch.
+     */
+    public int fetch(boolean delta) {
+        HttpHeaders headers = jsonHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> response = restTemplate.exchange(eurekaUrl + (delta ? "/apps/delta" : "/apps"), HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        return response.getBody() == null ? 0 : response.getBody().length;
+    }
+
+    /**
+     * @return the ids of all instances currently in the registry (full fetch).
+     */
+    public Set<String> fetchInstanceIds() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(eurekaUrl + "/apps", HttpMethod.GET, new HttpEntity<>(jsonHeaders()), String.class);
+        Set<String> ids = new HashSet<>();
+        for (JsonNode application : mapper.readTree(response.getBody()).path("applications").path("application")) {
+            for (JsonNode instance : application.path("instance")) {
+                ids.add(instance.path("instanceId").asText());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reads a metric of the Eureka server through its actuator metrics endpoint.
+     *
+     * @return the metric value or NaN if the server does not expose it.
+     */
+    @SuppressWarnings("unchecked")
+    public double serverMetric(String name, String tag) {
+        try {
+            String url = serverUrl + "/actuator/metrics/" + name + (tag == null ? "" : "?tag=" + tag);
+            Map<String, Object> metric = restTemplate.getForObject(url, Map.class);
+            List<Map<String, Object>> measurements = (List<Map<String, Object>>) metric.get("measurements");
+            return ((Number) measurements.get(0).get("value")).doubleValue();
+        } catch (Exception ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        return headers;
+    }
+}
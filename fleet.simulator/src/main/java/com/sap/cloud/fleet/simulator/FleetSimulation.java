@@ -0,0 +1,331 @@
+package com.sap.cloud.fleet.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.sap.cloud.address.service.LeaseRenewalSchedule;
+
+/**
+ * One simulation run against a Eureka server for a given fleet size.
+ *
+ * Registers {@code size} virtual instances (alternating address-service and
+ * employee-service), then lets them heartbeat according to their {@link LeaseRenewalSchedule}
+ * (the one of the services' adaptive lease renewal), occasionally change their
+ * 'events' metadata, while a few simulated clients fetch the registry. Optionally, a fraction of the fleet then stops
+ * heartbeating without deregistering, and the time until the server has evicted
+ * them is measured (failure detection time). Finally all instances deregister.
+ * Everything runs on a small, fixed number of threads.
+ */
+public class FleetSimulation {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetSimulation.class);
+
+    private static final String[] APP_NAMES = { "address-service", "employee-service" };
+
+    private final EurekaRestClient client;
+    private final int threads;
+    private final String mode;
+    private final Supplier<LeaseRenewalSchedule> schedules;
+    private final double metadataChangeProbability;
+    private final int fetchers;
+    private final long fetchIntervalMs;
+    private final long measureDurationMs;
+    private final double killFraction;
+    private final long detectionTimeoutMs;
+
+    /**
+     * @param mode name of the renewal mode in the report
+     * @param schedules creates the schedule of each (re-)registered instance
+     */
+    public FleetSimulation(EurekaRestClient client, int threads, String mode, Supplier<LeaseRenewalSchedule> schedules,
+                           double metadataChangeProbability, int fetchers, long fetchIntervalMs, long measureDurationMs,
+                           double killFraction, long detectionTimeoutMs) {
+        this.client = client;
+        this.threads = threads;
+        this.mode = mode;
+        this.schedules = schedules;
+        this.metadataChangeProbability = metadataChangeProbability;
+        this.fetchers = fetchers;
+        this.fetchIntervalMs = fetchIntervalMs;
+        this.measureDurationMs = measureDurationMs;
+        this.killFraction = killFraction;
+        this.detectionTimeoutMs = detectionTimeoutMs;
+    }
+
+    public Report run(int size) throws InterruptedException {
+        List<VirtualInstance> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fleet.add(new VirtualInstance(APP_NAMES[i % APP_NAMES.length], i, schedules.get()));
+        }
+
+        Report report = new Report(size, mode);
+        Run run = new Run(Executors.newScheduledThreadPool(threads), report);
+        try {
+            long start = System.nanoTime();
+            forEach(fleet, instance -> register(instance, report));
+            report.registrationSeconds = (System.nanoTime() - start) / 1e9;
+            logger.info("Registered {} instances in {} s", size, String.format("%.1f", report.registrationSeconds));
+
+            for (VirtualInstance instance : fleet) {
+                if (!instance.isRegistered()) {
+                    continue; // registration failed, nothing to renew
+                }
+                long initialDelay = ThreadLocalRandom.current().nextLong(instance.getSchedule().getIntervalSecs() * 1000L);
+                run.scheduler.schedule(() -> heartbeat(instance, run), initialDelay, TimeUnit.MILLISECONDS);
+            }
+            List<ScheduledFuture<?>> fetchTasks = new ArrayList<>();
+            AtomicLong fetchCount = new AtomicLong();
+            for (int i = 0; i < fetchers; i++) {
+                fetchTasks.add(run.scheduler.scheduleAtFixedRate(() -> fetch(report, fetchCount.incrementAndGet() % 10 == 0),
+                        ThreadLocalRandom.current().nextLong(fetchIntervalMs), fetchIntervalMs, TimeUnit.MILLISECONDS));
+            }
+
+            measure(report);
+
+            for (ScheduledFuture<?> task : fetchTasks) {
+                task.cancel(false);
+            }
+            if (killFraction > 0) {
+                measureFailureDetection(fleet, run);
+            }
+        } finally {
+            run.running.set(false);
+            run.scheduler.shutdownNow();
+            run.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            forEach(fleet, instance -> {
+                try {
+                    client.cancel(instance);
+                } catch (Exception ex) {
+                    // already gone
+                }
+            });
+        }
+        return report;
+    }
+
+    private void measure(Report report) throws InterruptedException {
+        long renewalsBefore = report.renewals.getCount();
+        long measureStart = System.currentTimeMillis();
+        double cpuSum = 0;
+        int cpuSamples = 0;
+        while (System.currentTimeMillis() - measureStart < measureDurationMs) {
+            Thread.sleep(1000);
+            double cpu = client.serverMetric("process.cpu.usage", null);
+            if (!Double.isNaN(cpu)) {
+                cpuSum += cpu;
+                cpuSamples++;
+            }
+            report.serverHeapBytes = Math.max(report.serverHeapBytes, client.serverMetric("jvm.memory.used", "area:heap"));
+        }
+        report.serverCpu = cpuSamples == 0 ? Double.NaN : cpuSum / cpuSamples;
+        report.measuredSeconds = (System.currentTimeMillis() - measureStart) / 1000.0;
+        report.measuredRenewals = report.renewals.getCount() - renewalsBefore;
+    }
+
+    /**
+     * Silently stops a fraction of the fleet and waits until the server has evicted all of them.
+     */
+    private void measureFailureDetection(List<VirtualInstance> fleet, Run run) throws InterruptedException {
+        int every = (int) Math.max(1, Math.round(1 / killFraction));
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < fleet.size(); i += every) {
+            if (!fleet.get(i).isRegistered()) {
+                continue; // not registered (or with a lease the server does not know)
+            }
+            run.killed.add(fleet.get(i).getInstanceId());
+            pending.add(fleet.get(i).getInstanceId());
+        }
+        long killedAt = System.currentTimeMillis();
+        logger.info("Stopped heartbeats of {} instances, waiting for eviction", pending.size());
+
+        LatencyStats detection = run.report.failureDetection;
+        while (!pending.isEmpty() && System.currentTimeMillis() - killedAt < detectionTimeoutMs) {
+            Thread.sleep(1000);
+            try {
+                Set<String> registered = client.fetchInstanceIds();
+                long elapsedNanos = (System.currentTimeMillis() - killedAt) * 1000000L;
+                pending.removeIf(id -> {
+                    if (registered.contains(id)) {
+                        return false;
+                    }
+                    detection.record(elapsedNanos);
+                    return true;
+                });
+            } catch (Exception ex) {
+                logger.warn("Registry fetch failed while waiting for eviction: {}", ex.getMessage());
+            }
+        }
+        run.report.undetected = pending.size();
+    }
+
+    private void register(VirtualInstance instance, Report report) {
+        LeaseRenewalSchedule schedule = instance.getSchedule();
+        instance.setRegistered(false);
+        timed(report.registrations, () -> client.register(instance, schedule.getIntervalSecs(), schedule.getDurationSecs()));
+        instance.setRegistered(true);
+    }
+
+    private void heartbeat(VirtualInstance instance, Run run) {
+        if (!run.running.get() || run.killed.contains(instance.getInstanceId())) {
+            return;
+        }
+        Report report = run.report;
+        try {
+            timed(report.renewals, () -> client.renew(instance));
+
+            // a renewal at the current interval has just happened, and the lease settings are registered synchronously
+            if (instance.getSchedule().adjust(instance.getStableForMs(), instance.isRegistered(), true) || !instance.isRegistered()) {
+                // like a real client, publish the new lease settings by registering again
+                register(instance, report);
+                report.leaseUpdates.incrementAndGet();
+            }
+        } catch (HttpClientErrorException.NotFound ex) {
+            // lease was evicted; a real client registers again
+            instance.restart(schedules.get());
+            try {
+                register(instance, report);
+            } catch (Exception registrationEx) {
+                // recorded as error
+            }
+        } catch (Exception ex) {
+            // recorded as error
+        }
+        if (ThreadLocalRandom.current().nextDouble() < metadataChangeProbability) {
+            try {
+                String events = instance.changeEvents();
+                timed(report.metadataUpdates, () -> client.updateEvents(instance, events));
+            } catch (Exception ex) {
+                // recorded as error
+            }
+        }
+        if (run.running.get()) {
+            run.scheduler.schedule(() -> heartbeat(instance, run), instance.getSchedule().getIntervalSecs(), TimeUnit.SECONDS);
+        }
+    }
+
+    private void fetch(Report report, boolean full) {
+        try {
+            long start = System.nanoTime();
+            int bytes = client.fetch(!full);
+            (full ? report.fullFetches : report.deltaFetches).record(System.nanoTime() - start);
+            if (full) {
+                report.fullFetchBytes = bytes;
+            }
+        } catch (Exception ex) {
+            (full ? report.fullFetches : report.deltaFetches).recordError();
+        }
+    }
+
+    private void forEach(List<VirtualInstance> fleet, Consumer<VirtualInstance> action) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (VirtualInstance instance : fleet) {
+            executor.execute(() -> {
+                try {
+                    action.accept(instance);
+                } catch (Exception ex) {
+                    // recorded as error by the action
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private static void timed(LatencyStats stats, Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+            stats.record(System.nanoTime() - start);
+        } catch (RuntimeException ex) {
+            stats.recordError();
+            throw ex;
+        }
+    }
+
+    /**
+     * State shared by the tasks of a single run.
+     */
+    private static class Run {
+        final ScheduledExecutorService scheduler;
+        final Report report;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Set<String> killed = ConcurrentHashMap.newKeySet();
+
+        Run(ScheduledExecutorService scheduler, Report report) {
+            this.scheduler = scheduler;
+            this.report = report;
+        }
+    }
+
+    /**
+     * Results of a single run.
+     */
+    public static class Report {
+        final int size;
+        final String mode;
+        final LatencyStats registrations = new LatencyStats(10000);
+        final LatencyStats renewals = new LatencyStats(10000);
+        final LatencyStats metadataUpdates = new LatencyStats(10000);
+        final LatencyStats deltaFetches = new LatencyStats(1000);
+        final LatencyStats fullFetches = new LatencyStats(1000);
+        final LatencyStats failureDetection = new LatencyStats(10000);
+        final AtomicLong leaseUpdates = new AtomicLong();
+        volatile int fullFetchBytes;
+        double registrationSeconds;
+        double measuredSeconds;
+        long measuredRenewals;
+        double serverCpu;
+        double serverHeapBytes;
+        int undetected;
+
+        Report(int size, String mode) {
+            this.size = size;
+            this.mode = mode;
+        }
+
+        public static String header() {
+            return String.format("%8s %8s %9s %9s %9s %8s %9s %9s %9s %9s %9s %7s %8s %9s %9s",
+                    "fleet", "mode", "reg/s", "renew/s", "renew.p50", "p99", "delta.p50", "p99", "full.p50", "p99", "full.KB", "cpu%", "heap.MB",
+                    "detect.s", "max");
+        }
+
+        public double renewalsPerSecond() {
+            return measuredSeconds == 0 ? 0 : measuredRenewals / measuredSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%8d %8s %9.0f %9.1f %9.2f %8.2f %9.2f %9.2f %9.2f %9.2f %9d %7.1f %8.0f %9.1f %9.1f",
+                    size, mode,
+                    registrationSeconds == 0 ? 0 : registrations.getCount() / registrationSeconds,
+                    renewalsPerSecond(),
+                    renewals.percentileMillis(50), renewals.percentileMillis(99),
+                    deltaFetches.percentileMillis(50), deltaFetches.percentileMillis(99),
+                    fullFetches.percentileMillis(50), fullFetches.percentileMillis(99),
+                    fullFetchBytes / 1024,
+                    serverCpu * 100,
+                    serverHeapBytes / (1024 * 1024),
+                    failureDetection.percentileMillis(50) / 1000, failureDetection.maxMillis() / 1000)
+                    + (undetected > 0 ? "   (" + undetected + " stopped instances not evicted in time)" : "")
+                    + (renewals.getErrors() + registrations.getErrors() > 0
+                            ? "   (errors: " + registrations.getErrors() + " registrations, " + renewals.getErrors() + " renewals)"
+                            : "");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sap.cloud.fleet.simulator;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Thread-safe latency recorder keeping a bounded reservoir sample.
+ *
+ * All calls are counted, but only up to {@code capacity} latencies are kept
+ * (reservoir sampling), so memory stays constant however many thousand
+ * virtual instances report into it.
+ */
+public class LatencyStats {
+
+    private final long[] samples;
+    private long count;
+    private long errors;
+    private long max;
+
+    public LatencyStats(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        if (count < samples.length) {
+            samples[(int) count] = nanos;
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(count + 1);
+            if (slot < samples.length) {
+                samples[(int) slot] = nanos;
+            }
+        }
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the given percentile (0..100) in milliseconds, 0 if nothing was recorded.
+     */
+    public synchronized double percentileMillis(double percentile) {
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(size - 1, Math.ceil(percentile / 100.0 * size) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    public synchronized double maxMillis() {
+        return max / 1e6;
+    }
+}
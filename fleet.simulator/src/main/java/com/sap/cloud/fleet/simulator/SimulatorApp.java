@@ -0,0 +1,109 @@
+package com.sap.cloud.fleet.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+import com.sap.cloud.address.service.LeaseRenewalSchedule;
+
+/**
+ * Synthetic fleet simulator for scale-testing the eureka.service.
+ *
+ * Simulates growing fleets of virtual address-service / employee-service
+ * instances against a locally running Eureka server (see application.yml for
+ * the settings) and prints registration, renewal and fetch latencies as well as
+ * the server's CPU and heap usage for each fleet size. With renewal mode 'adaptive'
+ * the virtual instances stretch their heartbeat interval with the services' adaptive
+ * lease renewal schedule; the failure detection columns show the resulting time until
+ * silently stopped instances are evicted.
+ *
+ * Run with: java -jar target/fleet.simulator-0.0.1-SNAPSHOT.jar --simulator.fleet-sizes=1000,5000,10000
+ */
+@SpringBootApplication
+public class SimulatorApp implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatorApp.class);
+
+    @Value("${simulator.eureka-url}")
+    private String eurekaUrl;
+
+    @Value("${simulator.fleet-sizes}")
+    private int[] fleetSizes;
+
+    @Value("${simulator.threads}")
+    private int threads;
+
+    @Value("${simulator.timeout-ms}")
+    private int timeoutMs;
+
+    @Value("${simulator.renewal-interval-secs}")
+    private int renewalIntervalSecs;
+
+    @Value("${simulator.lease-duration-secs}")
+    private int leaseDurationSecs;
+
+    @Value("${simulator.renewal-modes}")
+    private String[] renewalModes;
+
+    @Value("${simulator.adaptive-renewal.max-interval-secs}")
+    private int adaptiveMaxIntervalSecs;
+
+    @Value("${simulator.adaptive-renewal.stable-after-secs}")
+    private int adaptiveStableAfterSecs;
+
+    @Value("${simulator.adaptive-renewal.expiration-factor}")
+    private int adaptiveExpirationFactor;
+
+    @Value("${simulator.failure-detection.kill-fraction}")
+    private double killFraction;
+
+    @Value("${simulator.failure-detection.timeout-ms}")
+    private long detectionTimeoutMs;
+
+    @Value("${simulator.metadata-change-probability}")
+    private double metadataChangeProbability;
+
+    @Value("${simulator.fetchers}")
+    private int fetchers;
+
+    @Value("${simulator.fetch-interval-ms}")
+    private long fetchIntervalMs;
+
+    @Value("${simulator.measure-duration-ms}")
+    private long measureDurationMs;
+
+    public static void main(String[] args) {
+        SpringApplication.run(SimulatorApp.class, args);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        EurekaRestClient client = new EurekaRestClient(eurekaUrl, timeoutMs);
+
+        List<FleetSimulation.Report> reports = new ArrayList<>();
+        for (String mode : renewalModes) {
+            Supplier<LeaseRenewalSchedule> schedules = "adaptive".equals(mode)
+                    ? () -> new LeaseRenewalSchedule(renewalIntervalSecs, leaseDurationSecs, adaptiveMaxIntervalSecs, adaptiveStableAfterSecs, adaptiveExpirationFactor)
+                    : () -> LeaseRenewalSchedule.fixed(renewalIntervalSecs, leaseDurationSecs);
+            FleetSimulation simulation = new FleetSimulation(client, threads, mode, schedules, metadataChangeProbability,
+                    fetchers, fetchIntervalMs, measureDurationMs, killFraction, detectionTimeoutMs);
+            for (int size : fleetSizes) {
+                logger.info("Simulating a fleet of {} instances with {} renewals against {}", size, mode, eurekaUrl);
+                reports.add(simulation.run(size));
+            }
+        }
+
+        logger.info("Results:");
+        logger.info(FleetSimulation.Report.header());
+        for (FleetSimulation.Report report : reports) {
+            logger.info(report.toString());
+        }
+    }
+}
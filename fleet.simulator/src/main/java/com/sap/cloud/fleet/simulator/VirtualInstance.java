@@ -0,0 +1,147 @@
+package com.sap.cloud.fleet.simulator;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sap.cloud.address.service.LeaseRenewalSchedule;
+
+/**
+ * A simulated address-service or employee-service instance.
+ *
+ * Holds nothing but the identity and the state Eureka needs to see from it;
+ * registering, renewing and deregistering is done by {@link FleetSimulation}
+ * through the {@link EurekaRestClient}.
+ */
+public class VirtualInstance {
+
+    private final String appName;
+    private final String instanceId;
+    private final String hostName;
+    private final String ipAddr;
+    private final int port;
+    private volatile long lastDirtyTimestamp = System.currentTimeMillis();
+    private volatile int eventsVersion;
+    private volatile long upSince = System.currentTimeMillis();
+    private volatile LeaseRenewalSchedule schedule;
+    private volatile boolean registered;
+
+    public VirtualInstance(String appName, int index, LeaseRenewalSchedule schedule) {
+        this.appName = appName;
+        this.schedule = schedule;
+        this.hostName = "sim-" + index + ".fleet.local";
+        this.ipAddr = "10." + ((index >> 16) & 0xff) + "." + ((index >> 8) & 0xff) + "." + (index & 0xff);
+        this.port = 8080;
+        this.instanceId = hostName + ":" + appName.toLowerCase() + ":" + port;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getLastDirtyTimestamp() {
+        return lastDirtyTimestamp;
+    }
+
+    /**
+     * @return how long the instance has been UP without interruption.
+     */
+    public long getStableForMs() {
+        return System.currentTimeMillis() - upSince;
+    }
+
+    /**
+     * @return renewal interval and lease duration of the instance, only used by one thread at a time.
+     */
+    public LeaseRenewalSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * @return whether the server has the current lease settings of the instance.
+     */
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    public void setRegistered(boolean registered) {
+        this.registered = registered;
+    }
+
+    /**
+     * Marks the instance as freshly (re-)registered, e.g. after its lease was evicted.
+     */
+    public void restart(LeaseRenewalSchedule schedule) {
+        upSince = System.currentTimeMillis();
+        lastDirtyTimestamp = upSince;
+        this.schedule = schedule;
+        registered = false;
+    }
+
+    /**
+     * Simulates a change of the 'events' metadata (e.g. a new event type advertised).
+     *
+     * @return the new value of the 'events' metadata entry.
+     */
+    public String changeEvents() {
+        eventsVersion++;
+        lastDirtyTimestamp = System.currentTimeMillis();
+        return eventsJson();
+    }
+
+    /**
+     * @return the registration body in the JSON format accepted by 'POST /eureka/apps/{app}'.
+     */
+    public Map<String, Object> toRegistration(int renewalIntervalInSecs, int durationInSecs) {
+        String baseUrl = "http://" + hostName + ":" + port + "/";
+
+        Map<String, Object> instance = new LinkedHashMap<>();
+        instance.put("instanceId", instanceId);
+        instance.put("hostName", hostName);
+        instance.put("app", appName.toUpperCase());
+        instance.put("ipAddr", ipAddr);
+        instance.put("vipAddress", appName);
+        instance.put("secureVipAddress", appName);
+        instance.put("status", "UP");
+        instance.put("port", port(port, true));
+        instance.put("securePort", port(443, false));
+        instance.put("homePageUrl", baseUrl);
+        instance.put("statusPageUrl", baseUrl + "actuator/info");
+        instance.put("healthCheckUrl", baseUrl + "actuator/health");
+        instance.put("lastDirtyTimestamp", String.valueOf(lastDirtyTimestamp));
+
+        Map<String, Object> dataCenterInfo = new LinkedHashMap<>();
+        dataCenterInfo.put("@class", "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo");
+        dataCenterInfo.put("name", "MyOwn");
+        instance.put("dataCenterInfo", dataCenterInfo);
+
+        Map<String, Object> leaseInfo = new LinkedHashMap<>();
+        leaseInfo.put("renewalIntervalInSecs", renewalIntervalInSecs);
+        leaseInfo.put("durationInSecs", durationInSecs);
+        instance.put("leaseInfo", leaseInfo);
+
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("events", eventsJson());
+        instance.put("metadata", metadata);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("instance", instance);
+        return body;
+    }
+
+    private String eventsJson() {
+        return "[{\"type\":\"customerCreated\",\"registry\":\"https://kafka.registry.com\",\"version\":" + eventsVersion + "},"
+                + "{\"type\":\"customerDeleted\",\"registry\":\"https://kafka.registry.com\",\"version\":" + eventsVersion + "}]";
+    }
+
+    private static Map<String, Object> port(int port, boolean enabled) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("$", port);
+        result.put("@enabled", String.valueOf(enabled));
+        return result;
+    }
+}
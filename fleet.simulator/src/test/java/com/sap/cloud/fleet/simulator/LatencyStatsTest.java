@@ -0,0 +1,33 @@
+package com.sap.cloud.fleet.simulator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link LatencyStats}.
+ */
+public class LatencyStatsTest extends TestCase {
+
+    public void testPercentiles() {
+        LatencyStats stats = new LatencyStats(1000);
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i * 1000000L);
+        }
+        assertEquals(100, stats.getCount());
+        assertEquals(50.0, stats.percentileMillis(50), 0.001);
+        assertEquals(99.0, stats.percentileMillis(99), 0.001);
+        assertEquals(100.0, stats.maxMillis(), 0.001);
+    }
+
+    public void testReservoirKeepsCountingBeyondCapacity() {
+        LatencyStats stats = new LatencyStats(10);
+        for (int i = 0; i < 1000; i++) {
+            stats.record(1000000L);
+        }
+        assertEquals(1000, stats.getCount());
+        assertEquals(1.0, stats.percentileMillis(99), 0.001);
+    }
+
+    public void testEmpty() {
+        assertEquals(0.0, new LatencyStats(10).percentileMillis(50), 0.0);
+    }
+}